@@ -15,6 +15,9 @@ public final class AppConstants {
     public static final int DEFAULT_PAGE = 0;
     public static final int MAX_PAGE_SIZE = 1000;
 
+    // Search index: max matching ids pushed into an IN clause alongside other filters
+    public static final int MAX_SEARCH_INDEX_IDS = 5000;
+
     // Settings defaults
     public static final int DEFAULT_WEIGHT_GRAMS = 1000;
     public static final String DEFAULT_CURRENCY = "USD";
@@ -40,5 +43,8 @@ public final class AppConstants {
 
     // CSV import limits
     public static final int MAX_CSV_ROWS = 10000;
+
+    // Bulk spool operations: items per request
+    public static final int MAX_BULK_SPOOLS = 500;
 }
 
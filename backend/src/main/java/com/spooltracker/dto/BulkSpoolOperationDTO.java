@@ -0,0 +1,41 @@
+package com.spooltracker.dto;
+
+import java.util.List;
+
+import com.spooltracker.constants.AppConstants;
+import com.spooltracker.entity.SpoolLocation;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO representing one operation applied to many spools in one transaction
+ */
+public record BulkSpoolOperationDTO(
+    @NotNull(message = "Operation is required")
+    Operation operation,
+    @NotEmpty(message = "At least one spool is required")
+    @Size(max = AppConstants.MAX_BULK_SPOOLS, message = "At most " + AppConstants.MAX_BULK_SPOOLS + " spools per request")
+    List<Item> items,
+    // MOVE: target storage location, or a legacy location when not set
+    Long storageLocationId,
+    SpoolLocation location,
+    String locationDetails
+) {
+    public enum Operation {
+        MOVE,
+        WEIGH,
+        MARK_EMPTY,
+        DELETE
+    }
+
+    /**
+     * A spool by id or UID; WEIGH also takes the new weight
+     */
+    public record Item(
+        Long id,
+        String uid,
+        Double weight
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.spooltracker.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing the outcome of a bulk spool operation, one result per requested item
+ */
+public record BulkSpoolResultDTO(
+    BulkSpoolOperationDTO.Operation operation,
+    int succeeded,
+    int failed,
+    List<ItemResult> results
+) {
+    public record ItemResult(
+        Long id,
+        String uid,
+        String status,   // OK, NOT_FOUND, REJECTED
+        String error,    // Why the item was not applied
+        SpoolDTO spool   // The updated spool; null for DELETE and failures
+    ) {}
+}
@@ -0,0 +1,12 @@
+package com.spooltracker.dto;
+
+/**
+ * DTO representing a request to deduct filament from a spool
+ */
+public record FilamentDeductionDTO(
+    Long spoolId,
+    double gramsUsed,
+    String colorHex,  // For reference
+    String type,      // For reference
+    Integer plateIndex  // Plate the usage was read from (optional)
+) {}
@@ -0,0 +1,23 @@
+package com.spooltracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO representing the state of a background CSV import job
+ */
+public record ImportJobDTO(
+    String id,
+    String status,          // QUEUED, RUNNING, COMPLETED, FAILED
+    Integer totalLines,     // Data lines in the file, header excluded
+    int processedLines,     // Data lines committed so far
+    int imported,
+    int skipped,
+    int errorCount,
+    List<String> errors,    // The first per-line errors
+    Double linesPerSecond,  // Throughput of the current or last run
+    LocalDateTime createdAt,
+    LocalDateTime startedAt,
+    LocalDateTime completedAt,
+    String error            // Why the job failed, if FAILED
+) {}
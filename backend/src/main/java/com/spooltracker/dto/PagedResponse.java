@@ -6,10 +6,12 @@ public record PagedResponse<T>(
     List<T> data,
     int page,
     int pageSize,
-    long totalItems,
-    int totalPages,
+    Long totalItems,
+    Integer totalPages,
     boolean hasNext,
-    boolean hasPrevious
+    boolean hasPrevious,
+    // Opaque keyset cursor for the next page (cursor mode only)
+    String nextCursor
 ) {
     public static <T> PagedResponse<T> of(List<T> data, int page, int pageSize, long totalItems) {
         int totalPages = (int) Math.ceil((double) totalItems / pageSize);
@@ -20,8 +22,26 @@ public record PagedResponse<T>(
             totalItems,
             totalPages,
             page < totalPages - 1,
-            page > 0
+            page > 0,
+            null
         );
     }
-}
 
+    /**
+     * Builds a keyset-paginated response. The total count is optional since
+     * computing it requires a full COUNT over the filtered set.
+     */
+    public static <T> PagedResponse<T> ofCursor(List<T> data, int pageSize, String nextCursor,
+                                                boolean hasPrevious, Long totalItems) {
+        return new PagedResponse<>(
+            data,
+            0,
+            pageSize,
+            totalItems,
+            totalItems != null ? (int) Math.ceil((double) totalItems / pageSize) : null,
+            nextCursor != null,
+            hasPrevious,
+            nextCursor
+        );
+    }
+}
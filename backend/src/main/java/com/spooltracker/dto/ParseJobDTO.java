@@ -0,0 +1,17 @@
+package com.spooltracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing the state of an asynchronous 3MF parse job
+ */
+public record ParseJobDTO(
+    String id,
+    String status,      // QUEUED, RUNNING, COMPLETED, FAILED
+    String fileName,
+    Integer plate,
+    LocalDateTime createdAt,
+    LocalDateTime completedAt,
+    String error,
+    PrintJobParseResultDTO result  // Present once COMPLETED
+) {}
@@ -3,14 +3,30 @@ package com.spooltracker.dto;
 import java.util.List;
 
 /**
- * DTO representing the parsed result of a 3MF file
+ * DTO representing the parsed result of a 3MF file.
+ * Top-level time, weight and filaments describe the selected plate;
+ * {@code plates} carries the same data for every plate in the file.
  */
 public record PrintJobParseResultDTO(
     String fileName,
     String printerModel,
+    int plateIndex,
     int estimatedTimeSeconds,
     double totalWeightGrams,
     boolean usesSupport,
-    List<FilamentMatchDTO> filaments
-) {}
+    List<FilamentMatchDTO> filaments,
+    List<PlateDTO> plates
+) {
 
+    /**
+     * Print time, weight and matched filament usage of a single plate
+     */
+    public record PlateDTO(
+        int index,
+        int estimatedTimeSeconds,
+        double totalWeightGrams,
+        boolean usesSupport,
+        List<String> objects,
+        List<FilamentMatchDTO> filaments
+    ) {}
+}
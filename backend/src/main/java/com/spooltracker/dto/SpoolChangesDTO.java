@@ -0,0 +1,28 @@
+package com.spooltracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.spooltracker.entity.SpoolTombstone;
+
+/**
+ * One page of the spool change feed: spools created or updated, and spools deleted,
+ * after the requested position.
+ */
+public record SpoolChangesDTO(
+    List<SpoolDTO> changed,
+    List<DeletedSpoolDTO> deleted,
+    // Pass back as 'token' to continue after this page
+    String nextToken,
+    boolean hasMore
+) {
+    public record DeletedSpoolDTO(
+        Long id,
+        String uid,
+        LocalDateTime deletedAt
+    ) {
+        public static DeletedSpoolDTO from(SpoolTombstone entity) {
+            return new DeletedSpoolDTO(entity.spoolId, entity.uid, entity.deletedAt);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.spooltracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing a single spool history entry
+ */
+public record SpoolHistoryDTO(
+    Long id,
+    Long spoolId,
+    String action,
+    String description,
+    String oldValue,
+    String newValue,
+    LocalDateTime createdAt
+) {}
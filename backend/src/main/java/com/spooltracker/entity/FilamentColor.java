@@ -1,5 +1,9 @@
 package com.spooltracker.entity;
 
+import com.spooltracker.service.SpoolMatchIndexListener;
+import com.spooltracker.service.SpoolSearchIndexListener;
+import com.spooltracker.util.ColorScience;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -9,6 +13,7 @@ import jakarta.validation.constraints.Pattern;
 import java.util.List;
 
 @Entity
+@EntityListeners({SpoolSearchIndexListener.class, SpoolMatchIndexListener.class})
 @Table(
     name = "filament_color",
     indexes = {
@@ -30,6 +35,16 @@ public class FilamentColor extends PanacheEntity {
     @Column(name = "product_code", length = 20)
     public String productCode;
 
+    // Precomputed CIELAB (D65) coordinates of hexCode, used for perceptual color matching
+    @Column(name = "lab_l")
+    public Double labL;
+
+    @Column(name = "lab_a")
+    public Double labA;
+
+    @Column(name = "lab_b")
+    public Double labB;
+
     @NotNull(message = "Filament type is required")
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "filament_type_id", nullable = false)
@@ -38,6 +53,21 @@ public class FilamentColor extends PanacheEntity {
     @OneToMany(mappedBy = "color")
     public List<Spool> spools;
 
+    @PrePersist
+    @PreUpdate
+    public void updateLab() {
+        double[] lab = new double[3];
+        if (ColorScience.hexToLab(hexCode, lab)) {
+            labL = lab[0];
+            labA = lab[1];
+            labB = lab[2];
+        } else {
+            labL = null;
+            labA = null;
+            labB = null;
+        }
+    }
+
     public static List<FilamentColor> findByFilamentType(Long filamentTypeId) {
         return list("filamentType.id", filamentTypeId);
     }
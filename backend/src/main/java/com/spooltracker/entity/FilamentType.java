@@ -3,10 +3,14 @@ package com.spooltracker.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.spooltracker.service.SpoolMatchIndexListener;
+import com.spooltracker.service.SpoolSearchIndexListener;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -16,6 +20,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@EntityListeners({SpoolSearchIndexListener.class, SpoolMatchIndexListener.class})
 @Table(name = "filament_type")
 public class FilamentType extends PanacheEntity {
 
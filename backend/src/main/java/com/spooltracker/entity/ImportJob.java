@@ -0,0 +1,87 @@
+package com.spooltracker.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+/**
+ * A background CSV import. The position of the last committed line is stored with
+ * each committed chunk, so an interrupted job resumes where it stopped.
+ */
+@Entity
+@Table(
+    name = "import_job",
+    indexes = {
+        @Index(name = "idx_import_job_status", columnList = "status")
+    }
+)
+public class ImportJob extends PanacheEntityBase {
+
+    @Id
+    @Column(length = 36)
+    public String id;
+
+    @Column(nullable = false, length = 20)
+    public String status;
+
+    // Data lines in the uploaded file, header excluded
+    public Integer totalLines;
+
+    // Last file line (1-based, header is line 1) whose rows are committed
+    @Column(nullable = false)
+    public int lastCommittedLine = 1;
+
+    // Position the current run started from, for throughput
+    @Column(nullable = false)
+    public int startLine = 1;
+
+    @Column(nullable = false)
+    public int imported;
+
+    @Column(nullable = false)
+    public int skipped;
+
+    @Column(nullable = false)
+    public int errorCount;
+
+    // JSON array of the first per-line errors
+    @Column(columnDefinition = "TEXT")
+    public String errors;
+
+    // Reason the job failed as a whole
+    @Column(length = 1000)
+    public String error;
+
+    @Column(nullable = false, updatable = false)
+    public LocalDateTime createdAt;
+
+    public LocalDateTime startedAt;
+
+    public LocalDateTime completedAt;
+
+    @Column(nullable = false)
+    public LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public static List<ImportJob> findUnfinished(List<String> statuses) {
+        return list("status in ?1 order by createdAt", statuses);
+    }
+}
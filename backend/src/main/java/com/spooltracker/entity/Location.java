@@ -1,5 +1,8 @@
 package com.spooltracker.entity;
 
+import com.spooltracker.service.LocationTreeListener;
+import com.spooltracker.service.SpoolMatchIndexListener;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -12,12 +15,14 @@ import java.util.List;
  * Examples: AMS Slot 1, Rack A-3, Storage Box 1, Printer 1, etc.
  */
 @Entity
+@EntityListeners({SpoolMatchIndexListener.class, LocationTreeListener.class})
 @Table(
     name = "location",
     indexes = {
         @Index(name = "idx_location_parent", columnList = "parent_id"),
         @Index(name = "idx_location_type", columnList = "location_type"),
-        @Index(name = "idx_location_name", columnList = "name")
+        @Index(name = "idx_location_name", columnList = "name"),
+        @Index(name = "idx_location_path", columnList = "path")
     }
 )
 public class Location extends PanacheEntity {
@@ -38,6 +43,18 @@ public class Location extends PanacheEntity {
     @JoinColumn(name = "parent_id")
     public Location parent;
 
+    // Materialized hierarchy, maintained by LocationHierarchyService:
+    // ids from the root down to this location (e.g. "/1/5/12/"), so a subtree is a prefix match
+    @Column(length = 500)
+    public String path;
+
+    // Names from the root down to this location (e.g. "Rack A > Slot 1")
+    @Column(name = "full_path", length = 2000)
+    public String fullPath;
+
+    // 0 for root locations
+    public Integer depth;
+
     // Child locations
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
     public List<Location> children = new ArrayList<>();
@@ -49,6 +66,11 @@ public class Location extends PanacheEntity {
     // Maximum capacity (number of spools this location can hold, null = unlimited)
     public Integer capacity;
 
+    // Number of spools at this location, maintained by LocationOccupancyService with
+    // relative UPDATEs; never written from the entity so a stale copy cannot overwrite it
+    @Column(name = "spool_count", nullable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    public long spoolCount;
+
     // Icon or color for visual identification
     public String icon;
     public String color;
@@ -78,8 +100,16 @@ public class Location extends PanacheEntity {
         return find("name", name).firstResult();
     }
 
+    public static List<Location> findSubtree(Location root) {
+        return list("path like ?1 order by depth, sortOrder, name", root.path + "%");
+    }
+
     // Get the full path name (e.g., "Rack A > Slot 1")
     public String getFullPath() {
+        if (fullPath != null) {
+            return fullPath;
+        }
+        // Not yet materialized: walk the parents
         if (parent == null) {
             return name;
         }
@@ -88,7 +118,7 @@ public class Location extends PanacheEntity {
 
     // Get the count of spools at this location
     public long getSpoolCount() {
-        return Spool.count("storageLocation.id", this.id);
+        return spoolCount;
     }
 
     // Check if location has available capacity
@@ -1,8 +1,12 @@
 package com.spooltracker.entity;
 
+import com.spooltracker.service.SpoolMatchIndexListener;
+import com.spooltracker.service.SpoolSearchIndexListener;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -12,6 +16,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners({SpoolSearchIndexListener.class, SpoolMatchIndexListener.class})
 @Table(
     name = "manufacturer",
     indexes = {
@@ -1,8 +1,11 @@
 package com.spooltracker.entity;
 
+import com.spooltracker.service.SpoolMatchIndexListener;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -12,6 +15,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SpoolMatchIndexListener.class)
 @Table(
     name = "material",
     indexes = {
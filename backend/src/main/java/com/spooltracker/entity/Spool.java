@@ -5,9 +5,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import com.spooltracker.service.SpoolMatchIndexListener;
+import com.spooltracker.service.SpoolSearchIndexListener;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -17,11 +21,13 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 
 @Entity
+@EntityListeners({SpoolSearchIndexListener.class, SpoolMatchIndexListener.class})
 @Table(
     name = "spool",
     indexes = {
@@ -32,7 +38,9 @@ import jakarta.validation.constraints.Positive;
         @Index(name = "idx_spool_color", columnList = "color_id"),
         @Index(name = "idx_spool_legacy_location", columnList = "location"),
         @Index(name = "idx_spool_is_empty", columnList = "is_empty"),
-        @Index(name = "idx_spool_uid", columnList = "uid")
+        @Index(name = "idx_spool_uid", columnList = "uid"),
+        // Serves the change feed ordered by (updated_at, id)
+        @Index(name = "idx_spool_updated_at", columnList = "updated_at")
     }
 )
 public class Spool extends PanacheEntity {
@@ -126,6 +134,11 @@ public class Spool extends PanacheEntity {
     // Whether this spool is empty/finished
     public Boolean isEmpty = false;
 
+    // Optimistic lock: concurrent read-modify-write of the same spool fails instead of losing an update
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    public Long version;
+
     @PrePersist
     public void prePersist() {
         if (uid == null) {
@@ -177,6 +190,10 @@ public class Spool extends PanacheEntity {
     }
 
     public Double getRemainingPercentage() {
+        return remainingPercentage(initialWeightGrams, currentWeightGrams);
+    }
+
+    public static Double remainingPercentage(Double initialWeightGrams, Double currentWeightGrams) {
         if (initialWeightGrams == null || initialWeightGrams == 0 || currentWeightGrams == null) {
             return null;
         }
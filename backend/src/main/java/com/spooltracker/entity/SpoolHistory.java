@@ -5,8 +5,10 @@ import java.util.List;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -17,13 +19,17 @@ import jakarta.persistence.Table;
 @Table(
     name = "spool_history",
     indexes = {
-        @Index(name = "idx_spool_history_spool", columnList = "spool_id")
+        // Serves per-spool history in time order; also covers lookups by spool_id alone
+        @Index(name = "idx_spool_history_spool_created", columnList = "spool_id, created_at"),
+        @Index(name = "idx_spool_history_created", columnList = "created_at")
     }
 )
 public class SpoolHistory extends PanacheEntity {
 
+    // Not managed by schema update, which would try to add it back to a partitioned table
+    // on every start. SpoolHistoryPartitionService adds it while the table is not partitioned.
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "spool_id", nullable = false)
+    @JoinColumn(name = "spool_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     public Spool spool;
 
     @Column(nullable = false)
@@ -0,0 +1,49 @@
+package com.spooltracker.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Marker left behind when a spool is deleted, so the change feed can report the
+ * deletion to clients that synced before it. Keyed by the deleted spool's id.
+ */
+@Entity
+@Table(
+    name = "spool_tombstone",
+    indexes = {
+        @Index(name = "idx_spool_tombstone_deleted_at", columnList = "deleted_at")
+    }
+)
+public class SpoolTombstone extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "spool_id")
+    public Long spoolId;
+
+    @Column(nullable = false)
+    public String uid;
+
+    @Column(nullable = false)
+    public LocalDateTime deletedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (deletedAt == null) {
+            deletedAt = LocalDateTime.now();
+        }
+    }
+
+    public static SpoolTombstone of(Spool spool) {
+        SpoolTombstone tombstone = new SpoolTombstone();
+        tombstone.spoolId = spool.id;
+        tombstone.uid = spool.uid;
+        return tombstone;
+    }
+}
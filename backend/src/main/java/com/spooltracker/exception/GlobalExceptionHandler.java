@@ -1,6 +1,7 @@
 package com.spooltracker.exception;
 
 import com.spooltracker.dto.ErrorResponse;
+import com.spooltracker.util.TransactionHooks;
 import jakarta.persistence.PersistenceException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -47,7 +48,25 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
         if (exception instanceof IllegalArgumentException) {
             return handleIllegalArgumentException((IllegalArgumentException) exception, path);
         }
+
+        if (exception instanceof IdempotencyKeyException) {
+            return handleIdempotencyKeyException((IdempotencyKeyException) exception, path);
+        }
         
+        // Concurrent modification of a versioned entity; the client may retry
+        if (TransactionHooks.isVersionConflict(exception)) {
+            return Response
+                .status(Response.Status.CONFLICT)
+                .entity(new ErrorResponse(
+                    "The record was modified concurrently, please retry",
+                    "CONFLICT",
+                    Response.Status.CONFLICT.getStatusCode(),
+                    path
+                ))
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+        }
+
         // Handle JPA/Hibernate persistence exceptions
         if (exception instanceof PersistenceException) {
             return handlePersistenceException((PersistenceException) exception, path);
@@ -138,6 +157,14 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
             .build();
     }
 
+    private Response handleIdempotencyKeyException(IdempotencyKeyException exception, String path) {
+        return Response
+            .status(exception.getStatus())
+            .entity(new ErrorResponse(exception.getMessage(), exception.getCode(), exception.getStatus(), path))
+            .type(MediaType.APPLICATION_JSON)
+            .build();
+    }
+
     private ErrorResponse.ValidationError mapConstraintViolation(ConstraintViolation<?> violation) {
         String field = violation.getPropertyPath().toString();
         // Extract field name from property path (e.g., "create.name" -> "name")
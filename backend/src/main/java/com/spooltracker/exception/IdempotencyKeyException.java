@@ -0,0 +1,48 @@
+package com.spooltracker.exception;
+
+import com.spooltracker.service.IdempotencyService;
+
+import jakarta.ws.rs.core.Response;
+
+/**
+ * An {@value IdempotencyService#HEADER} that cannot be honored for this request.
+ */
+public class IdempotencyKeyException extends RuntimeException {
+
+    private static final int UNPROCESSABLE_ENTITY = 422;
+
+    private final int status;
+    private final String code;
+
+    private IdempotencyKeyException(String message, int status, String code) {
+        super(message);
+        this.status = status;
+        this.code = code;
+    }
+
+    /**
+     * The key was already used for a request with different content
+     */
+    public static IdempotencyKeyException mismatch() {
+        return new IdempotencyKeyException(
+            IdempotencyService.HEADER + " was already used for a different request",
+            UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_MISMATCH");
+    }
+
+    /**
+     * The first request with the key is still running; the client may retry later
+     */
+    public static IdempotencyKeyException inProgress() {
+        return new IdempotencyKeyException(
+            "A request with this " + IdempotencyService.HEADER + " is still in progress, please retry",
+            Response.Status.CONFLICT.getStatusCode(), "IDEMPOTENCY_KEY_IN_PROGRESS");
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,44 @@
+package com.spooltracker.resource;
+
+import com.spooltracker.service.SpoolHistoryJournal;
+import com.spooltracker.service.SpoolHistoryQueryService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Cross-spool history feed
+ */
+@Path("/api/history")
+@Produces(MediaType.APPLICATION_JSON)
+public class HistoryResource {
+
+    @Inject
+    SpoolHistoryJournal historyJournal;
+
+    @Inject
+    SpoolHistoryQueryService historyQueryService;
+
+    /**
+     * Page through history of all spools, newest first
+     */
+    @GET
+    public Response getHistory(
+        @QueryParam("spoolId") Long spoolId,
+        @QueryParam("action") String action,
+        @QueryParam("from") String from,
+        @QueryParam("to") String to,
+        @QueryParam("pageSize") @DefaultValue("50") int pageSize,
+        @QueryParam("cursor") String cursor
+    ) {
+        historyJournal.flush();
+
+        SpoolHistoryQueryService.Filter filter = SpoolHistoryQueryService.Filter.of(spoolId, action, from, to);
+        return Response.ok(historyQueryService.page(filter, cursor, pageSize)).build();
+    }
+}
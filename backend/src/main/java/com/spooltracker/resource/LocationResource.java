@@ -4,13 +4,21 @@ import com.spooltracker.dto.LocationDTO;
 import com.spooltracker.dto.SpoolDTO;
 import com.spooltracker.entity.Location;
 import com.spooltracker.entity.Spool;
+import com.spooltracker.service.LocationHierarchyService;
+import com.spooltracker.service.LocationOccupancyService;
+import com.spooltracker.service.LocationTreeService;
+import com.spooltracker.service.SpoolQueryService;
 import com.spooltracker.util.ResponseHelper;
 import com.spooltracker.util.Sanitizer;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 
@@ -21,6 +29,18 @@ import java.util.List;
 @Consumes(MediaType.APPLICATION_JSON)
 public class LocationResource {
 
+    @Inject
+    SpoolQueryService spoolQueryService;
+
+    @Inject
+    LocationHierarchyService hierarchyService;
+
+    @Inject
+    LocationOccupancyService occupancyService;
+
+    @Inject
+    LocationTreeService treeService;
+
     @Context
     UriInfo uriInfo;
 
@@ -69,10 +89,20 @@ public class LocationResource {
 
     @GET
     @Path("/tree")
-    public List<LocationDTO> getTree() {
-        // Get root locations with their children
-        List<Location> rootLocations = Location.findRootLocations();
-        return rootLocations.stream().map(LocationDTO::fromWithChildren).toList();
+    public Response getTree(@Context Request request) {
+        LocationTreeService.Snapshot tree = treeService.tree();
+        EntityTag etag = new EntityTag(tree.etag());
+        // Revalidation with the current ETag is answered from memory with a 304
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+        return Response.ok(tree.json(), MediaType.APPLICATION_JSON)
+            .tag(etag)
+            .cacheControl(cacheControl)
+            .build();
     }
 
     @GET
@@ -96,14 +126,49 @@ public class LocationResource {
 
     @GET
     @Path("/{id}/spools")
-    public Response getSpoolsAtLocation(@PathParam("id") Long id) {
+    public Response getSpoolsAtLocation(
+            @PathParam("id") Long id,
+            @QueryParam("includeDescendants") @DefaultValue("false") boolean includeDescendants
+    ) {
         Location location = Location.findById(id);
         if (location == null) {
             return ResponseHelper.notFound("Location not found", uriInfo);
         }
         
-        List<Spool> spools = Spool.findByStorageLocation(id);
-        return Response.ok(spools.stream().map(SpoolDTO::from).toList()).build();
+        List<SpoolDTO> spools = includeDescendants && location.path != null
+            // Everything under this location is one prefix match on the materialized path
+            ? spoolQueryService.list("storageLocation.path like ?1", List.of(location.path + "%"), 0, Integer.MAX_VALUE)
+            : spoolQueryService.list("s.storageLocation.id = ?1", List.of(id), 0, Integer.MAX_VALUE);
+        return Response.ok(spools).build();
+    }
+
+    @GET
+    @Path("/{id}/descendants")
+    public Response getDescendants(@PathParam("id") Long id) {
+        Location location = Location.findById(id);
+        if (location == null) {
+            return ResponseHelper.notFound("Location not found", uriInfo);
+        }
+        List<Location> subtree = Location.findSubtree(location);
+        return Response.ok(subtree.stream()
+            .filter(descendant -> !descendant.id.equals(id))
+            .map(LocationDTO::from)
+            .toList()).build();
+    }
+
+    @GET
+    @Path("/{id}/ancestors")
+    public Response getAncestors(@PathParam("id") Long id) {
+        Location location = Location.findById(id);
+        if (location == null) {
+            return ResponseHelper.notFound("Location not found", uriInfo);
+        }
+        List<Long> ancestorIds = LocationHierarchyService.ancestorIds(location);
+        if (ancestorIds.isEmpty()) {
+            return Response.ok(List.of()).build();
+        }
+        List<Location> ancestors = Location.list("id in ?1 order by depth", ancestorIds);
+        return Response.ok(ancestors.stream().map(LocationDTO::from).toList()).build();
     }
 
     @POST
@@ -112,6 +177,7 @@ public class LocationResource {
         Location location = new Location();
         updateLocationFromDTO(location, dto);
         location.persist();
+        hierarchyService.place(location);
         return Response.status(Response.Status.CREATED)
                 .entity(LocationDTO.from(location))
                 .build();
@@ -126,6 +192,7 @@ public class LocationResource {
             return ResponseHelper.notFound("Location not found", uriInfo);
         }
         updateLocationFromDTO(location, dto);
+        hierarchyService.place(location);
         return Response.ok(LocationDTO.from(location)).build();
     }
 
@@ -138,9 +205,9 @@ public class LocationResource {
             return ResponseHelper.notFound("Location not found", uriInfo);
         }
         
-        // Check if there are spools at this location
-        List<Spool> spoolsAtLocation = Spool.findByStorageLocation(id);
-        long spoolCount = spoolsAtLocation.size();
+        // Check if there are spools at this location. Counted rather than read from
+        // spoolCount, so a drifted counter cannot let a location with spools be deleted.
+        long spoolCount = Spool.count("storageLocation.id", id);
         if (spoolCount > 0) {
             return ResponseHelper.badRequest("Cannot delete location with " + spoolCount + " spool(s). Move or delete spools first.", uriInfo);
         }
@@ -200,12 +267,11 @@ public class LocationResource {
             return ResponseHelper.notFound("Spool not found", uriInfo);
         }
         
-        // Check capacity
-        if (!location.hasCapacity()) {
+        // Reserve a place atomically; a separate check-then-assign lets concurrent moves overfill it
+        if (!occupancyService.placeWithinCapacity(spool, location)) {
             return ResponseHelper.badRequest("Location is at full capacity (" + location.capacity + " spools)", uriInfo);
         }
         
-        spool.storageLocation = location;
         spool.legacyLocation = null; // Clear legacy location
         spool.locationDetails = null; // Clear old details
         
@@ -1,53 +1,63 @@
 package com.spooltracker.resource;
 
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.io.IOException;
 import java.util.List;
 
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
-import com.spooltracker.dto.FilamentMatchDTO;
-import com.spooltracker.dto.FilamentMatchDTO.SpoolMatchDTO;
-import com.spooltracker.dto.FilamentUsageDTO;
+import com.spooltracker.dto.FilamentDeductionDTO;
+import com.spooltracker.dto.ParseJobDTO;
 import com.spooltracker.dto.PrintJobParseResultDTO;
 import com.spooltracker.dto.SpoolDTO;
-import com.spooltracker.entity.Spool;
-import com.spooltracker.service.SpoolHistoryService;
-import com.spooltracker.service.ThreeMFParserService;
+import com.spooltracker.service.IdempotencyService;
+import com.spooltracker.service.ParseJobService;
+import com.spooltracker.service.PrintJobService;
 import com.spooltracker.util.ResponseHelper;
 
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 @Path("/api/print-jobs")
 @Produces(MediaType.APPLICATION_JSON)
 public class PrintJobResource {
 
     @Inject
-    ThreeMFParserService parserService;
+    PrintJobService printJobService;
 
     @Inject
-    SpoolHistoryService historyService;
+    ParseJobService parseJobService;
+
+    @Inject
+    IdempotencyService idempotencyService;
 
     @Context
     UriInfo uriInfo;
 
     /**
-     * Upload and parse a 3MF file to extract filament usage
+     * Upload and parse a 3MF file to extract filament usage.
+     * With async=true the file is queued as a parse job and 202 is returned with the job.
      */
     @POST
     @Path("/parse-3mf")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    public Response parse3mf(FileUpload file) {
+    public Response parse3mf(FileUpload file,
+                             @QueryParam("plate") Integer plate,
+                             @QueryParam("async") @DefaultValue("false") boolean async) {
         if (file == null) {
             return ResponseHelper.badRequest("No file uploaded", uriInfo);
         }
@@ -57,26 +67,22 @@ public class PrintJobResource {
             return ResponseHelper.badRequest("File must be a .3mf file", uriInfo);
         }
 
-        try (InputStream is = java.nio.file.Files.newInputStream(file.uploadedFile())) {
-            // Parse the 3MF file
-            ThreeMFParserService.ParseResult parseResult = parserService.parse(is);
-
-            // Match each filament to available spools
-            List<FilamentMatchDTO> filamentMatches = new ArrayList<>();
-            for (FilamentUsageDTO usage : parseResult.filaments()) {
-                List<SpoolMatchDTO> matchingSpools = findMatchingSpools(usage);
-                filamentMatches.add(new FilamentMatchDTO(usage, matchingSpools, null));
+        if (async) {
+            try {
+                ParseJobDTO job = parseJobService.submit(file.uploadedFile(), fileName, plate);
+                if (job == null) {
+                    return ResponseHelper.serviceUnavailable("Too many parse jobs queued, try again later", uriInfo);
+                }
+                return Response.accepted(job)
+                    .location(uriInfo.getBaseUriBuilder().path(PrintJobResource.class).path("parse-jobs").path(job.id()).build())
+                    .build();
+            } catch (IOException e) {
+                return ResponseHelper.internalServerError("Failed to queue parse job: " + e.getMessage(), uriInfo);
             }
+        }
 
-            PrintJobParseResultDTO result = new PrintJobParseResultDTO(
-                fileName,
-                parseResult.printerModel(),
-                parseResult.estimatedTimeSeconds(),
-                parseResult.totalWeightGrams(),
-                parseResult.usesSupport(),
-                filamentMatches
-            );
-
+        try {
+            PrintJobParseResultDTO result = printJobService.analyze(file.uploadedFile(), fileName, plate);
             return Response.ok(result).build();
         } catch (IllegalArgumentException e) {
             return ResponseHelper.badRequest(e.getMessage(), uriInfo);
@@ -86,158 +92,62 @@ public class PrintJobResource {
     }
 
     /**
-     * Confirm print job and deduct filament from selected spools
+     * Get the status, and once completed the result, of an asynchronous parse job
      */
-    @POST
-    @Path("/confirm")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Transactional
-    public Response confirmPrintJob(List<FilamentDeductionRequest> deductions) {
-        if (deductions == null || deductions.isEmpty()) {
-            return ResponseHelper.badRequest("No deductions provided", uriInfo);
-        }
-
-        List<SpoolDTO> updatedSpools = new ArrayList<>();
-
-        for (FilamentDeductionRequest deduction : deductions) {
-            if (deduction.spoolId() == null || deduction.gramsUsed() <= 0) {
-                continue;
-            }
-
-            Spool spool = Spool.findById(deduction.spoolId());
-            if (spool == null) {
-                return ResponseHelper.badRequest("Spool not found: " + deduction.spoolId(), uriInfo);
-            }
-
-            // Check if spool has enough filament
-            double currentWeight = spool.currentWeightGrams != null ? spool.currentWeightGrams : 0;
-            double newWeight = Math.max(0, currentWeight - deduction.gramsUsed());
-
-            // Record the weight change
-            Double oldWeight = spool.currentWeightGrams;
-            spool.currentWeightGrams = newWeight;
-
-            // Auto-mark as empty if weight is very low
-            if (newWeight < 50) {
-                spool.isEmpty = true;
-            }
-
-            // Record in history
-            historyService.recordWeightUpdate(spool, oldWeight, newWeight);
-
-            updatedSpools.add(SpoolDTO.from(spool));
+    @GET
+    @Path("/parse-jobs/{id}")
+    public Response getParseJob(@PathParam("id") String id) {
+        ParseJobDTO job = parseJobService.get(id);
+        if (job == null) {
+            return ResponseHelper.notFound("Parse job not found: " + id, uriInfo);
         }
-
-        return Response.ok(updatedSpools).build();
+        return Response.ok(job).build();
     }
 
     /**
-     * Find spools that match the given filament usage by material type and color
+     * Stream parse job status changes as server-sent events; the stream ends once the job finishes
      */
-    private List<SpoolMatchDTO> findMatchingSpools(FilamentUsageDTO usage) {
-        // Get all non-empty spools
-        List<Spool> allSpools = Spool.find("isEmpty = false OR isEmpty IS NULL").list();
-
-        List<SpoolMatchDTO> matches = new ArrayList<>();
-
-        for (Spool spool : allSpools) {
-            // Skip if no color info
-            if (spool.color == null || spool.color.hexCode == null) {
-                continue;
+    @GET
+    @Path("/parse-jobs/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamParseJob(@PathParam("id") String id, @Context SseEventSink sink, @Context Sse sse) {
+        boolean found = parseJobService.subscribe(id, job -> {
+            sink.send(sse.newEventBuilder()
+                .name("status")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(ParseJobDTO.class, job)
+                .build());
+            if (job.completedAt() != null) {
+                sink.close();
             }
-
-            // Check material type match (PLA, PETG, etc.)
-            String spoolMaterial = spool.filamentType != null && spool.filamentType.material != null
-                ? spool.filamentType.material.name.toUpperCase()
-                : "";
-            String spoolTypeName = spool.filamentType != null ? spool.filamentType.name.toUpperCase() : "";
-            
-            boolean materialMatch = spoolMaterial.contains(usage.type().toUpperCase()) 
-                || spoolTypeName.contains(usage.type().toUpperCase())
-                || usage.type().toUpperCase().contains(spoolMaterial);
-
-            if (!materialMatch) {
-                continue;
-            }
-
-            // Calculate color match score (0-100)
-            int colorScore = calculateColorMatchScore(usage.colorHex(), spool.color.hexCode);
-
-            // Only include if color is reasonably close (score > 50)
-            if (colorScore < 50) {
-                continue;
-            }
-
-            // Check if spool has enough filament
-            double currentWeight = spool.currentWeightGrams != null ? spool.currentWeightGrams : 0;
-            boolean hasEnough = currentWeight >= usage.usedGrams();
-
-            // Adjust score based on availability
-            int finalScore = hasEnough ? colorScore : colorScore / 2;
-
-            matches.add(new SpoolMatchDTO(
-                spool.id,
-                spool.uid,
-                spool.manufacturer != null ? spool.manufacturer.name : "Unknown",
-                spool.filamentType != null ? spool.filamentType.name : "Unknown",
-                spoolMaterial,
-                spool.color.name,
-                spool.color.hexCode,
-                spool.currentWeightGrams,
-                spool.getRemainingPercentage(),
-                spool.storageLocation != null ? spool.storageLocation.name : 
-                    (spool.legacyLocation != null ? spool.legacyLocation.getDisplayName() : "Unknown"),
-                finalScore
-            ));
+        });
+        if (!found) {
+            sink.close();
+            throw new NotFoundException("Parse job not found: " + id);
         }
-
-        // Sort by match score (highest first)
-        matches.sort(Comparator.comparingInt(SpoolMatchDTO::matchScore).reversed());
-
-        return matches;
     }
 
     /**
-     * Calculate how closely two hex colors match (0-100 score)
+     * Confirm print job and deduct filament from selected spools.
+     * With a plate selector, only deductions for that plate (or without a plate) are applied.
      */
-    private int calculateColorMatchScore(String hex1, String hex2) {
-        try {
-            // Parse hex colors
-            int r1 = Integer.parseInt(hex1.substring(1, 3), 16);
-            int g1 = Integer.parseInt(hex1.substring(3, 5), 16);
-            int b1 = Integer.parseInt(hex1.substring(5, 7), 16);
-
-            int r2 = Integer.parseInt(hex2.substring(1, 3), 16);
-            int g2 = Integer.parseInt(hex2.substring(3, 5), 16);
-            int b2 = Integer.parseInt(hex2.substring(5, 7), 16);
-
-            // Calculate Euclidean distance in RGB space
-            double distance = Math.sqrt(
-                Math.pow(r1 - r2, 2) + 
-                Math.pow(g1 - g2, 2) + 
-                Math.pow(b1 - b2, 2)
-            );
-
-            // Max possible distance is sqrt(3 * 255^2) ≈ 441.67
-            double maxDistance = 441.67;
-
-            // Convert to 0-100 score (100 = exact match)
-            int score = (int) ((1 - (distance / maxDistance)) * 100);
-
-            return Math.max(0, Math.min(100, score));
-        } catch (Exception e) {
-            return 0;
+    @POST
+    @Path("/confirm")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response confirmPrintJob(List<FilamentDeductionDTO> deductions,
+                                    @QueryParam("plate") Integer plate,
+                                    @HeaderParam(IdempotencyService.HEADER) String idempotencyKey) {
+        if (deductions == null || deductions.isEmpty()) {
+            return ResponseHelper.badRequest("No deductions provided", uriInfo);
         }
-    }
 
-    /**
-     * Request to deduct filament from a spool
-     */
-    public record FilamentDeductionRequest(
-        Long spoolId,
-        double gramsUsed,
-        String colorHex,  // For reference
-        String type       // For reference
-    ) {}
+        return idempotencyService.execute("print-job-confirm", idempotencyKey, new Object[] { deductions, plate }, () -> {
+            try {
+                List<SpoolDTO> updatedSpools = printJobService.confirm(deductions, plate);
+                return Response.ok(updatedSpools).build();
+            } catch (IllegalArgumentException e) {
+                return ResponseHelper.badRequest(e.getMessage(), uriInfo);
+            }
+        });
+    }
 }
-
@@ -1,57 +1,55 @@
 package com.spooltracker.resource;
 
 import com.spooltracker.entity.Spool;
-import com.spooltracker.entity.SpoolHistory;
+import com.spooltracker.service.SpoolHistoryJournal;
+import com.spooltracker.service.SpoolHistoryQueryService;
 import com.spooltracker.util.ResponseHelper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Path("/api/spools/{id}/history")
 @Produces(MediaType.APPLICATION_JSON)
 public class SpoolHistoryResource {
 
+    @Inject
+    SpoolHistoryJournal historyJournal;
+
+    @Inject
+    SpoolHistoryQueryService historyQueryService;
+
     @Context
     UriInfo uriInfo;
 
+    /**
+     * Page through a spool's history, newest first. Without a cursor the first page is returned.
+     */
     @GET
-    public Response getSpoolHistory(@PathParam("id") Long spoolId) {
+    public Response getSpoolHistory(
+        @PathParam("id") Long spoolId,
+        @QueryParam("action") String action,
+        @QueryParam("from") String from,
+        @QueryParam("to") String to,
+        @QueryParam("pageSize") @DefaultValue("50") int pageSize,
+        @QueryParam("cursor") String cursor
+    ) {
         Spool spool = Spool.findById(spoolId);
         if (spool == null) {
             return ResponseHelper.notFound("Spool not found", uriInfo);
         }
 
-        List<SpoolHistory> history = SpoolHistory.findBySpoolOrderByCreatedAtDesc(spoolId);
-        
-        // Convert to DTO-like structure
-        List<HistoryEntry> entries = history.stream()
-            .map(h -> new HistoryEntry(
-                h.id,
-                h.action,
-                h.description,
-                h.oldValue,
-                h.newValue,
-                h.createdAt
-            ))
-            .collect(Collectors.toList());
-
-        return Response.ok(entries).build();
-    }
+        // Make entries still queued by the write-behind journal visible
+        historyJournal.flush();
 
-    public record HistoryEntry(
-        Long id,
-        String action,
-        String description,
-        String oldValue,
-        String newValue,
-        java.time.LocalDateTime createdAt
-    ) {}
+        SpoolHistoryQueryService.Filter filter = SpoolHistoryQueryService.Filter.of(spoolId, action, from, to);
+        return Response.ok(historyQueryService.page(filter, cursor, pageSize)).build();
+    }
 }
-
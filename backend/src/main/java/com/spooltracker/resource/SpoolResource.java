@@ -3,6 +3,8 @@ package com.spooltracker.resource;
 import java.time.LocalDate;
 import java.util.List;
 
+import com.spooltracker.constants.AppConstants;
+import com.spooltracker.dto.BulkSpoolOperationDTO;
 import com.spooltracker.dto.CreateSpoolDTO;
 import com.spooltracker.dto.PagedResponse;
 import com.spooltracker.dto.SpoolDTO;
@@ -16,8 +18,16 @@ import com.spooltracker.entity.Settings;
 import com.spooltracker.entity.SpoolHistory;
 import com.spooltracker.entity.SpoolLocation;
 import com.spooltracker.entity.SpoolType;
+import com.spooltracker.service.IdempotencyService;
+import com.spooltracker.service.LocationOccupancyService;
 import com.spooltracker.service.SettingsService;
+import com.spooltracker.service.SpoolBulkService;
+import com.spooltracker.service.SpoolChangeService;
+import com.spooltracker.service.SpoolHistoryJournal;
 import com.spooltracker.service.SpoolHistoryService;
+import com.spooltracker.service.SpoolQueryService;
+import com.spooltracker.service.SpoolSearchIndex;
+import com.spooltracker.util.Cursor;
 import com.spooltracker.util.ResponseHelper;
 import com.spooltracker.util.Sanitizer;
 
@@ -28,6 +38,7 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
@@ -51,6 +62,27 @@ public class SpoolResource {
     @Inject
     SettingsService settingsService;
 
+    @Inject
+    SpoolQueryService spoolQueryService;
+
+    @Inject
+    SpoolSearchIndex searchIndex;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    SpoolHistoryJournal historyJournal;
+
+    @Inject
+    SpoolChangeService changeService;
+
+    @Inject
+    LocationOccupancyService occupancyService;
+
+    @Inject
+    SpoolBulkService bulkService;
+
     @Context
     UriInfo uriInfo;
 
@@ -65,13 +97,29 @@ public class SpoolResource {
         @QueryParam("colorNumber") String colorNumber,
         @QueryParam("search") String search,
         @QueryParam("page") @DefaultValue("0") int page,
-        @QueryParam("pageSize") @DefaultValue("50") int pageSize
+        @QueryParam("pageSize") @DefaultValue("50") int pageSize,
+        @QueryParam("cursor") String cursor,
+        @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal
     ) {
         // Use Panache query with proper parameter binding
         io.quarkus.panache.common.Page panachePage = io.quarkus.panache.common.Page.of(page, pageSize);
         
+        // Resolve the search term through the in-memory index when it is available
+        boolean hasSearch = search != null && !search.trim().isEmpty();
+        long[] searchIds = hasSearch ? searchIndex.search(search) : null;
+        boolean hasOtherFilters = location != null || storageLocationId != null || manufacturerId != null
+            || filamentTypeId != null || colorId != null || isEmpty != null
+            || (colorNumber != null && !colorNumber.trim().isEmpty());
+        if (searchIds != null && (!hasOtherFilters || searchIds.length == 0)) {
+            // Search is the only filter: page straight from the index, no COUNT or scan needed
+            return pageBySearchIds(searchIds, panachePage, cursor, includeTotal);
+        }
+        // Very broad terms combined with other filters fall back to SQL LIKE predicates
+        boolean useLikeSearch = hasSearch
+            && (searchIds == null || searchIds.length > AppConstants.MAX_SEARCH_INDEX_IDS);
+        
         // Determine if JOINs are needed first
-        boolean needsJoin = search != null && !search.trim().isEmpty() 
+        boolean needsJoin = useLikeSearch
             || colorId != null 
             || manufacturerId != null 
             || filamentTypeId != null;
@@ -133,7 +181,14 @@ public class SpoolResource {
         
         // Add search filter - use JOIN for better performance
         // IMPORTANT: This must come AFTER JOINs are determined, as it references joined entity aliases
-        if (search != null && !search.trim().isEmpty()) {
+        if (hasSearch && !useLikeSearch) {
+            List<Long> ids = new java.util.ArrayList<>(searchIds.length);
+            for (long id : searchIds) {
+                ids.add(id);
+            }
+            conditions.add("s.id IN ?" + paramIndex++);
+            params.add(ids);
+        } else if (useLikeSearch) {
             String searchLower = "%" + search.toLowerCase().trim() + "%";
             // Use JOIN syntax for better query performance - aliases must exist from JOIN above
             conditions.add("(LOWER(color.name) LIKE ?" + paramIndex++
@@ -151,34 +206,38 @@ public class SpoolResource {
         String whereClause = conditions.isEmpty() ? null : String.join(" AND ", conditions);
         String fullQuery = baseQuery + (whereClause != null ? " WHERE " + whereClause : "");
         
-        // Get total count - use optimized count query
-        long totalCount;
-        if (whereClause != null) {
-            String countQuery = "SELECT COUNT(s) " + fullQuery;
-            totalCount = Spool.find(countQuery, params.toArray()).count();
-        } else {
-            totalCount = Spool.count();
+        // Keyset (cursor) mode: seek past the last seen id instead of using OFFSET,
+        // so every page costs the same. Pass an empty cursor to fetch the first page.
+        if (cursor != null) {
+            Long afterId = Cursor.decode(cursor);
+            int limit = pageSize > 0 ? Math.min(pageSize, AppConstants.MAX_PAGE_SIZE) : AppConstants.DEFAULT_PAGE_SIZE;
+            
+            List<String> seekConditions = new java.util.ArrayList<>(conditions);
+            List<Object> seekParams = new java.util.ArrayList<>(params);
+            if (afterId != null) {
+                seekConditions.add("s.id > ?" + paramIndex);
+                seekParams.add(afterId);
+            }
+            String seekWhere = seekConditions.isEmpty() ? null : String.join(" AND ", seekConditions);
+            
+            // Fetch one extra row to know whether another page exists
+            List<SpoolDTO> rows = spoolQueryService.list(seekWhere, seekParams, 0, limit + 1);
+            boolean hasNext = rows.size() > limit;
+            List<SpoolDTO> pageRows = hasNext ? rows.subList(0, limit) : rows;
+            String nextCursor = hasNext ? Cursor.encode(pageRows.get(pageRows.size() - 1).id()) : null;
+            
+            Long total = includeTotal ? countSpools(whereClause, fullQuery, params) : null;
+            return Response.ok(
+                PagedResponse.ofCursor(pageRows, limit, nextCursor, afterId != null, total)
+            ).build();
         }
         
-        // Get paginated results with JOINs for better performance
-        // Note: JOIN FETCH with DISTINCT can cause issues with pagination in some JPA implementations
-        // Since entities use EAGER fetching, related entities should already be loaded
-        // If N+1 issues occur, consider using @EntityGraph or batch fetching
-        List<Spool> spools;
-        if (whereClause != null) {
-            String selectQuery = "SELECT DISTINCT s " + fullQuery;
-            spools = Spool.find(selectQuery, params.toArray())
-                .page(panachePage)
-                .list();
-        } else {
-            spools = Spool.findAll()
-                .page(panachePage)
-                .list();
-        }
+        // Get total count - use optimized count query
+        long totalCount = countSpools(whereClause, fullQuery, params);
         
-        List<SpoolDTO> spoolDTOs = spools.stream()
-            .map(SpoolDTO::from)
-            .toList();
+        // Select straight into DTOs with one explicit join query - no entity hydration
+        List<SpoolDTO> spoolDTOs = spoolQueryService.list(
+            whereClause, params, panachePage.index * panachePage.size, panachePage.size);
         
         // Return paginated response if pagination requested, otherwise return list for backward compatibility
         if (pageSize > 0 && pageSize < totalCount) {
@@ -190,6 +249,56 @@ public class SpoolResource {
         }
     }
 
+    /**
+     * Page through search results using the sorted id list from the search index.
+     * Only the ids of the requested page are sent to the database.
+     */
+    private Response pageBySearchIds(long[] ids, io.quarkus.panache.common.Page panachePage,
+                                     String cursor, boolean includeTotal) {
+        if (cursor != null) {
+            Long afterId = Cursor.decode(cursor);
+            int limit = Math.min(panachePage.size, AppConstants.MAX_PAGE_SIZE);
+            int from = 0;
+            if (afterId != null) {
+                int pos = java.util.Arrays.binarySearch(ids, afterId);
+                from = pos >= 0 ? pos + 1 : -pos - 1;
+            }
+            int to = Math.min(ids.length, from + limit);
+            List<SpoolDTO> rows = listByIds(ids, from, to);
+            String nextCursor = to < ids.length && !rows.isEmpty() ? Cursor.encode(ids[to - 1]) : null;
+            return Response.ok(
+                PagedResponse.ofCursor(rows, limit, nextCursor, afterId != null, includeTotal ? (long) ids.length : null)
+            ).build();
+        }
+        
+        int from = (int) Math.min((long) panachePage.index * panachePage.size, ids.length);
+        int to = (int) Math.min((long) from + panachePage.size, ids.length);
+        List<SpoolDTO> rows = listByIds(ids, from, to);
+        if (panachePage.size < ids.length) {
+            return Response.ok(PagedResponse.of(rows, panachePage.index, panachePage.size, ids.length)).build();
+        }
+        return Response.ok(rows).build();
+    }
+    
+    private List<SpoolDTO> listByIds(long[] ids, int from, int to) {
+        if (from >= to) {
+            return List.of();
+        }
+        List<Long> pageIds = new java.util.ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(ids[i]);
+        }
+        return spoolQueryService.list("s.id IN ?1", List.of(pageIds), 0, pageIds.size());
+    }
+
+    private long countSpools(String whereClause, String fullQuery, List<Object> params) {
+        if (whereClause != null) {
+            String countQuery = "SELECT COUNT(s) " + fullQuery;
+            return Spool.find(countQuery, params.toArray()).count();
+        }
+        return Spool.count();
+    }
+
     @GET
     @Path("/{id}")
     public Response getById(@PathParam("id") Long id) {
@@ -240,11 +349,10 @@ public class SpoolResource {
             if (storageLocation == null) {
                 return ResponseHelper.badRequest("Storage location not found", uriInfo);
             }
-            spool.storageLocation = storageLocation;
+            occupancyService.place(spool, storageLocation);
             spool.legacyLocation = null;
         } else if (dto.location() != null) {
             spool.legacyLocation = dto.location();
-            spool.storageLocation = null;
         }
         spool.locationDetails = Sanitizer.sanitize(dto.locationDetails());
         
@@ -312,12 +420,12 @@ public class SpoolResource {
         if (dto.storageLocationId() != null) {
             Location storageLocation = Location.findById(dto.storageLocationId());
             if (storageLocation != null) {
-                spool.storageLocation = storageLocation;
+                occupancyService.place(spool, storageLocation);
                 spool.legacyLocation = null;
             }
         } else if (dto.location() != null) {
             spool.legacyLocation = dto.location();
-            spool.storageLocation = null;
+            occupancyService.place(spool, null);
         }
         if (dto.locationDetails() != null) {
             spool.locationDetails = Sanitizer.sanitize(dto.locationDetails());
@@ -390,12 +498,12 @@ public class SpoolResource {
             if (storageLocation == null) {
                 return ResponseHelper.badRequest("Storage location not found", uriInfo);
             }
-            spool.storageLocation = storageLocation;
+            occupancyService.place(spool, storageLocation);
             spool.legacyLocation = null;
             spool.locationDetails = null;
         } else if (location != null) {
             spool.legacyLocation = location;
-            spool.storageLocation = null;
+            occupancyService.place(spool, null);
         }
         
         if (details != null) {
@@ -416,28 +524,31 @@ public class SpoolResource {
     @Transactional
     public Response updateWeight(
         @PathParam("id") Long id,
-        @QueryParam("weight") Double weight
+        @QueryParam("weight") Double weight,
+        @HeaderParam(IdempotencyService.HEADER) String idempotencyKey
     ) {
-        Spool spool = Spool.findById(id);
-        if (spool == null) {
-            return ResponseHelper.notFound("Spool not found", uriInfo);
-        }
-        
-        if (weight != null && weight > 0) {
-            Double oldWeight = spool.currentWeightGrams;
-            spool.currentWeightGrams = weight;
-            spool.lastUsedDate = LocalDate.now();
-            
-            // Auto-mark as empty if weight is very low
-            if (weight < 50) {
-                spool.isEmpty = true;
+        return idempotencyService.execute("spool-weight:" + id, idempotencyKey, weight, () -> {
+            Spool spool = Spool.findById(id);
+            if (spool == null) {
+                return ResponseHelper.notFound("Spool not found", uriInfo);
             }
-            
-            // Record weight update in history
-            historyService.recordWeightUpdate(spool, oldWeight, weight);
-        }
-        
-        return Response.ok(SpoolDTO.from(spool)).build();
+
+            if (weight != null && weight > 0) {
+                Double oldWeight = spool.currentWeightGrams;
+                spool.currentWeightGrams = weight;
+                spool.lastUsedDate = LocalDate.now();
+
+                // Auto-mark as empty if weight is very low
+                if (weight < 50) {
+                    spool.isEmpty = true;
+                }
+
+                // Record weight update in history
+                historyService.recordWeightUpdate(spool, oldWeight, weight);
+            }
+
+            return Response.ok(SpoolDTO.from(spool)).build();
+        });
     }
 
     @PATCH
@@ -453,7 +564,7 @@ public class SpoolResource {
             spool.isEmpty = true;
             spool.currentWeightGrams = 0.0;
             spool.legacyLocation = SpoolLocation.EMPTY;
-            spool.storageLocation = null;
+            occupancyService.place(spool, null);
             
             // Record in history
             historyService.recordMarkedEmpty(spool);
@@ -471,13 +582,37 @@ public class SpoolResource {
             return ResponseHelper.notFound("Spool not found", uriInfo);
         }
         
-        // Delete spool history first to avoid foreign key constraint violation
-        SpoolHistory.delete("spool.id", id);
+        // Delete spool history with the spool, including entries still queued in the journal.
+        // No history predates the spool, so the createdAt bound lets a partitioned table skip older months.
+        historyJournal.flush();
+        SpoolHistory.delete("spool.id = ?1 and createdAt >= ?2", id,
+            spool.createdAt.toLocalDate().withDayOfMonth(1).atStartOfDay());
+
+        // Tell change feed clients about the deletion
+        changeService.recordDeletion(spool);
+        occupancyService.removed(spool);
         
         spool.delete();
         return Response.noContent().build();
     }
 
+    /**
+     * Move, weigh, mark empty or delete many spools in one transaction.
+     * Returns one result per item; items that cannot be applied do not fail the others.
+     */
+    @POST
+    @Path("/bulk")
+    public Response bulk(@Valid BulkSpoolOperationDTO dto,
+                         @HeaderParam(IdempotencyService.HEADER) String idempotencyKey) {
+        return idempotencyService.execute("spool-bulk", idempotencyKey, dto, () -> {
+            try {
+                return Response.ok(bulkService.apply(dto)).build();
+            } catch (IllegalArgumentException e) {
+                return ResponseHelper.badRequest(e.getMessage(), uriInfo);
+            }
+        });
+    }
+
     // Statistics endpoints
     @GET
     @Path("/stats/by-location")
@@ -0,0 +1,70 @@
+package com.spooltracker.service;
+
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.spooltracker.entity.FilamentColor;
+import com.spooltracker.util.ColorScience;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+
+/**
+ * Perceptual color matching based on CIEDE2000 over precomputed CIELAB coordinates.
+ * Scores run from 100 (identical) down to 0 at a ΔE2000 of {@link #SCORE_SCALE_DELTA_E};
+ * matches beyond the configured maximum ΔE are rejected.
+ */
+@ApplicationScoped
+public class ColorMatchService {
+
+    private static final Logger LOG = Logger.getLogger(ColorMatchService.class);
+
+    // ΔE2000 at which the match score reaches 0
+    public static final double SCORE_SCALE_DELTA_E = 50.0;
+
+    @ConfigProperty(name = "spooltracker.color-match.max-delta-e", defaultValue = "25")
+    double maxDeltaE;
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            backfillLab();
+        } catch (Exception e) {
+            LOG.warnf(e, "Failed to backfill CIELAB coordinates for filament colors");
+        }
+    }
+
+    /**
+     * Compute CIELAB coordinates for colors stored before they were tracked.
+     */
+    @Transactional
+    public void backfillLab() {
+        List<FilamentColor> colors = FilamentColor.list("labL is null");
+        for (FilamentColor color : colors) {
+            color.updateLab();
+        }
+        if (!colors.isEmpty()) {
+            LOG.infof("Backfilled CIELAB coordinates for %d filament colors", colors.size());
+        }
+    }
+
+    public double maxDeltaE() {
+        return maxDeltaE;
+    }
+
+    /**
+     * Score two CIELAB colors from 0 to 100, or -1 if they are further apart
+     * than the configured maximum ΔE2000.
+     */
+    public int score(double l1, double a1, double b1, double l2, double a2, double b2) {
+        double deltaE = ColorScience.deltaE2000(l1, a1, b1, l2, a2, b2);
+        if (deltaE > maxDeltaE) {
+            return -1;
+        }
+        int score = (int) ((1 - deltaE / SCORE_SCALE_DELTA_E) * 100);
+        return Math.max(0, Math.min(100, score));
+    }
+}
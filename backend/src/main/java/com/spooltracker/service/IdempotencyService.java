@@ -0,0 +1,195 @@
+package com.spooltracker.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spooltracker.exception.IdempotencyKeyException;
+import com.spooltracker.util.TransactionHooks;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Deduplicates retried write requests carrying an {@value #HEADER} header.
+ * <p>
+ * The first request for a key runs the action; successful responses are kept and
+ * replayed for later requests with the same key until they expire or are evicted
+ * (oldest first, bounded by {@code max-keys}). A request that arrives while the
+ * first one is still running waits for its outcome, up to {@code wait-timeout},
+ * instead of running again. Each key is bound to a hash of its request, so reusing
+ * a key for a different request is rejected rather than answered with the other
+ * request's response. Failed requests and rolled-back transactions release the
+ * key so the client can retry.
+ */
+@ApplicationScoped
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    @ConfigProperty(name = "spooltracker.idempotency.max-keys", defaultValue = "10000")
+    int maxKeys;
+
+    @ConfigProperty(name = "spooltracker.idempotency.ttl", defaultValue = "PT24H")
+    Duration ttl;
+
+    @ConfigProperty(name = "spooltracker.idempotency.wait-timeout", defaultValue = "PT30S")
+    Duration waitTimeout;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Insertion-ordered, so the eldest entry is also the first to expire
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private record StoredResponse(int status, Object entity) {}
+
+    private record Entry(CompletableFuture<StoredResponse> outcome, String requestHash, Instant createdAt) {}
+
+    /**
+     * Run the action at most once per key within the given scope.
+     * Without a key the action simply runs.
+     *
+     * @param scope Namespace of the key, usually the operation name
+     * @param key The client-supplied idempotency key, may be null
+     * @param request What identifies the request besides the scope (body and parameters);
+     *                compared by its JSON form
+     * @param action Produces the response; runs inside the caller's transaction, if any
+     * @throws IdempotencyKeyException if the key was used for a different request, or
+     *         its first request is still running after the wait timeout
+     */
+    public Response execute(String scope, String key, Object request, Supplier<Response> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+
+        while (true) {
+            CompletableFuture<StoredResponse> outcome = new CompletableFuture<>();
+            Entry existing;
+            synchronized (entries) {
+                purge();
+                existing = entries.get(id);
+                if (existing == null) {
+                    entries.put(id, new Entry(outcome, requestHash, Instant.now()));
+                }
+            }
+
+            if (existing == null) {
+                return run(id, outcome, action);
+            }
+            if (!existing.requestHash().equals(requestHash)) {
+                throw IdempotencyKeyException.mismatch();
+            }
+
+            StoredResponse stored = await(existing.outcome());
+            if (stored != null) {
+                return Response.status(stored.status())
+                    .entity(stored.entity())
+                    .header(REPLAYED_HEADER, "true")
+                    .build();
+            }
+            // The earlier attempt failed and released the key; try to claim it again
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> outcome) {
+        try {
+            return outcome.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw IdempotencyKeyException.inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw IdempotencyKeyException.inProgress();
+        } catch (ExecutionException e) {
+            // Outcomes are never completed exceptionally
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * SHA-256 of the request's JSON form, as lowercase hex
+     */
+    String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request cannot be serialized for " + HEADER, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Response run(String id, CompletableFuture<StoredResponse> outcome, Supplier<Response> action) {
+        Response response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(id, outcome);
+            throw e;
+        }
+
+        if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+            release(id, outcome);
+            return response;
+        }
+
+        StoredResponse stored = new StoredResponse(response.getStatus(), response.getEntity());
+        // Only remember the response once its changes are durable
+        TransactionHooks.afterCompletion(committed -> {
+            if (committed) {
+                outcome.complete(stored);
+            } else {
+                release(id, outcome);
+            }
+        });
+        return response;
+    }
+
+    private void release(String id, CompletableFuture<StoredResponse> outcome) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.outcome() == outcome) {
+                entries.remove(id);
+            }
+        }
+        outcome.complete(null);
+    }
+
+    private void purge() {
+        Instant cutoff = Instant.now().minus(ttl);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entries.size() > maxKeys || entry.createdAt().isBefore(cutoff)) {
+                // Never drop a key whose request is still running
+                if (entry.outcome().isDone()) {
+                    it.remove();
+                    continue;
+                }
+            }
+            break;
+        }
+    }
+}
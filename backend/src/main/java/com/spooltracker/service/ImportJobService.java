@@ -0,0 +1,296 @@
+package com.spooltracker.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spooltracker.dto.ImportJobDTO;
+import com.spooltracker.entity.ImportJob;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs CSV imports in the background.
+ * <p>
+ * An upload is first written to the job directory, then imported on a worker thread
+ * by {@link SpoolImportService}, which commits in chunks. The job row is updated in
+ * the same transaction as each chunk, so after a crash or restart unfinished jobs
+ * are picked up again and continue after the last committed line. On shutdown a
+ * running job stops at its next chunk and is resumed on the next start.
+ */
+@ApplicationScoped
+public class ImportJobService {
+
+    private static final Logger LOG = Logger.getLogger(ImportJobService.class);
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // Per-line errors kept on the job; the count is always complete
+    static final int MAX_STORED_ERRORS = 1000;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    SpoolImportService importService;
+
+    @ConfigProperty(name = "spooltracker.import-jobs.dir", defaultValue = "import-jobs")
+    String directory;
+
+    @ConfigProperty(name = "spooltracker.import-jobs.concurrency", defaultValue = "1")
+    int concurrency;
+
+    @ConfigProperty(name = "spooltracker.import-jobs.retention", defaultValue = "P7D")
+    Duration retention;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ThreadPoolExecutor executor;
+    private volatile boolean stopping;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            Thread.ofVirtual().name("import-job-", 0).factory()
+        );
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            List<ImportJob> unfinished = QuarkusTransaction.requiringNew().call(() ->
+                ImportJob.findUnfinished(List.of(STATUS_QUEUED, STATUS_RUNNING)));
+            for (ImportJob job : unfinished) {
+                LOG.infof("Resuming import job %s after line %d", job.id, job.lastCommittedLine);
+                executor.execute(() -> run(job.id));
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to resume import jobs");
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stopping = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOG.warn("Import jobs did not stop in time; they resume from their last checkpoint on restart");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Store the upload and queue it for import.
+     */
+    public ImportJobDTO submit(InputStream csv) throws IOException {
+        purgeExpired();
+
+        String id = UUID.randomUUID().toString();
+        Path file = fileOf(id);
+        Files.createDirectories(file.getParent());
+        int lines;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            lines = copyCountingLines(csv, out);
+        }
+
+        ImportJob job = new ImportJob();
+        job.id = id;
+        job.status = STATUS_QUEUED;
+        job.totalLines = Math.max(0, lines - 1);
+        QuarkusTransaction.requiringNew().run(() -> job.persist());
+
+        executor.execute(() -> run(id));
+        return toDTO(job);
+    }
+
+    public ImportJobDTO get(String id) {
+        ImportJob job = QuarkusTransaction.requiringNew().call(() -> ImportJob.findById(id));
+        return job != null ? toDTO(job) : null;
+    }
+
+    private void run(String id) {
+        ImportJob job = QuarkusTransaction.requiringNew().call(() -> {
+            ImportJob current = ImportJob.findById(id);
+            if (current == null || isFinished(current)) {
+                return null;
+            }
+            current.status = STATUS_RUNNING;
+            current.startedAt = LocalDateTime.now();
+            current.startLine = current.lastCommittedLine;
+            return current;
+        });
+        if (job == null) {
+            return;
+        }
+
+        Path file = fileOf(id);
+        // Errors of earlier runs stay on the job; this run only reports its own
+        int baseErrorCount = job.errorCount;
+        List<String> baseErrors = readErrors(job.errors);
+        SpoolImportService.Checkpoint checkpoint = new SpoolImportService.Checkpoint() {
+            @Override
+            public void committed(int line, SpoolImportService.Result totals) {
+                ImportJob current = em.find(ImportJob.class, id);
+                current.lastCommittedLine = line;
+                current.imported = totals.imported();
+                current.skipped = totals.skipped();
+                current.errorCount = baseErrorCount + totals.errors().size();
+                current.errors = writeErrors(baseErrors, totals.errors());
+            }
+
+            @Override
+            public boolean stopRequested() {
+                return stopping;
+            }
+        };
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            importService.importCsv(reader, job.lastCommittedLine,
+                new SpoolImportService.Result(job.imported, job.skipped, List.of()), checkpoint);
+        } catch (Exception e) {
+            LOG.warnf(e, "Import job %s failed", id);
+            finish(id, STATUS_FAILED, "Failed to import CSV: " + e.getMessage());
+            return;
+        }
+
+        if (stopping) {
+            QuarkusTransaction.requiringNew().run(() -> {
+                ImportJob current = em.find(ImportJob.class, id);
+                current.status = STATUS_QUEUED;
+            });
+            LOG.infof("Import job %s paused for shutdown", id);
+            return;
+        }
+        finish(id, STATUS_COMPLETED, null);
+    }
+
+    private void finish(String id, String status, String error) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            ImportJob current = em.find(ImportJob.class, id);
+            current.status = status;
+            current.error = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+            current.completedAt = LocalDateTime.now();
+        });
+        try {
+            Files.deleteIfExists(fileOf(id));
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to delete import job file for %s", id);
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        QuarkusTransaction.requiringNew().run(() ->
+            ImportJob.delete("completedAt < ?1", cutoff));
+    }
+
+    private Path fileOf(String id) {
+        return Path.of(directory).resolve(id + ".csv");
+    }
+
+    private static boolean isFinished(ImportJob job) {
+        return STATUS_COMPLETED.equals(job.status) || STATUS_FAILED.equals(job.status);
+    }
+
+    private List<String> readErrors(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private String writeErrors(List<String> earlier, List<String> current) {
+        List<String> errors = new ArrayList<>(Math.min(MAX_STORED_ERRORS, earlier.size() + current.size()));
+        errors.addAll(earlier.subList(0, Math.min(earlier.size(), MAX_STORED_ERRORS)));
+        for (int i = 0; i < current.size() && errors.size() < MAX_STORED_ERRORS; i++) {
+            errors.add(current.get(i));
+        }
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    ImportJobDTO toDTO(ImportJob job) {
+        Double linesPerSecond = null;
+        if (job.startedAt != null) {
+            LocalDateTime end = job.completedAt != null ? job.completedAt : LocalDateTime.now();
+            double seconds = Duration.between(job.startedAt, end).toMillis() / 1000.0;
+            if (seconds > 0) {
+                linesPerSecond = (job.lastCommittedLine - job.startLine) / seconds;
+            }
+        }
+        return new ImportJobDTO(
+            job.id,
+            job.status,
+            job.totalLines,
+            Math.max(0, job.lastCommittedLine - 1),
+            job.imported,
+            job.skipped,
+            job.errorCount,
+            readErrors(job.errors),
+            linesPerSecond,
+            job.createdAt,
+            job.startedAt,
+            job.completedAt,
+            job.error
+        );
+    }
+
+    /**
+     * Copy the stream and count its lines; a last line without a trailing newline counts.
+     */
+    static int copyCountingLines(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int lines = 0;
+        byte last = '\n';
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+            last = buffer[read - 1];
+        }
+        if (last != '\n') {
+            lines++;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,134 @@
+package com.spooltracker.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.logging.Logger;
+
+import com.spooltracker.entity.Location;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * Maintains the materialized location hierarchy ({@link Location#path},
+ * {@link Location#fullPath} and {@link Location#depth}).
+ * <p>
+ * With the path stored, a full path is a column read, a subtree is one prefix
+ * query on the indexed {@code path} and the ancestors are the ids in the path,
+ * instead of one SELECT per level through the lazy {@code parent}. Paths are
+ * set when a location is created and rewritten for the whole subtree when it
+ * is renamed or moved.
+ */
+@ApplicationScoped
+public class LocationHierarchyService {
+
+    private static final Logger LOG = Logger.getLogger(LocationHierarchyService.class);
+
+    static final String SEPARATOR = "/";
+    static final String NAME_SEPARATOR = " > ";
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            QuarkusTransaction.requiringNew().run(this::backfill);
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to materialize location paths");
+        }
+    }
+
+    /**
+     * Compute the path of a new, renamed or moved location from its parent and
+     * rewrite its descendants if the path changed. The location must have an id.
+     * @throws IllegalArgumentException if the new parent is the location itself or one of its descendants
+     */
+    public void place(Location location) {
+        String oldPath = location.path;
+        Location parent = location.parent;
+        if (parent != null && (location.id.equals(parent.id)
+                || (oldPath != null && parent.path != null && parent.path.startsWith(oldPath)))) {
+            throw new IllegalArgumentException("A location cannot be moved into itself or one of its descendants");
+        }
+
+        String oldFullPath = location.fullPath;
+        apply(location);
+        if (oldPath == null || (oldPath.equals(location.path) && location.fullPath.equals(oldFullPath))) {
+            return;
+        }
+
+        // Parents come before their children in depth order, so each descendant
+        // is recomputed from an already updated parent
+        for (Location descendant : Location.<Location>list(
+                "path like ?1 and id <> ?2 order by depth", oldPath + "%", location.id)) {
+            apply(descendant);
+        }
+    }
+
+    /**
+     * Ids of the location's ancestors, root first.
+     */
+    public static List<Long> ancestorIds(Location location) {
+        List<Long> ids = new ArrayList<>();
+        if (location.path == null) {
+            for (Location parent = location.parent; parent != null; parent = parent.parent) {
+                ids.add(0, parent.id);
+            }
+            return ids;
+        }
+        for (String part : location.path.split(SEPARATOR)) {
+            if (!part.isEmpty() && !part.equals(String.valueOf(location.id))) {
+                ids.add(Long.valueOf(part));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Materialize paths for locations created before paths existed.
+     */
+    void backfill() {
+        if (Location.count("path is null") == 0) {
+            return;
+        }
+        List<Location> locations = Location.listAll();
+        Map<Long, Location> byId = new HashMap<>();
+        for (Location location : locations) {
+            byId.put(location.id, location);
+        }
+        int updated = 0;
+        for (Location location : locations) {
+            if (location.path == null) {
+                backfill(location, byId, 0);
+                updated++;
+            }
+        }
+        LOG.infof("Materialized paths for %d locations", updated);
+    }
+
+    private void backfill(Location location, Map<Long, Location> byId, int guard) {
+        Location parent = location.parent;
+        // Guard against accidental cycles in the parent chain
+        if (parent != null && parent.path == null && guard < byId.size()) {
+            backfill(parent, byId, guard + 1);
+        }
+        apply(location);
+    }
+
+    private static void apply(Location location) {
+        Location parent = location.parent;
+        location.path = pathOf(parent != null ? parent.path : null, location.id);
+        location.fullPath = fullPathOf(parent != null ? parent.fullPath : null, location.name);
+        location.depth = parent != null && parent.depth != null ? parent.depth + 1 : 0;
+    }
+
+    static String pathOf(String parentPath, Long id) {
+        return (parentPath != null ? parentPath : SEPARATOR) + id + SEPARATOR;
+    }
+
+    static String fullPathOf(String parentFullPath, String name) {
+        return parentFullPath != null ? parentFullPath + NAME_SEPARATOR + name : name;
+    }
+}
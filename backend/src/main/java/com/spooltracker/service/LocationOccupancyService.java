@@ -0,0 +1,291 @@
+package com.spooltracker.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jboss.logging.Logger;
+
+import com.spooltracker.entity.Location;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Maintains the per-location spool counter ({@link Location#spoolCount}).
+ * <p>
+ * Every change of a spool's storage location goes through {@link #place} or
+ * {@link #removed}, which adjust the counters with a relative UPDATE in the same
+ * transaction, so concurrent moves never lose an increment, and
+ * {@link #placeWithinCapacity} checks for a free place with the location rows
+ * locked. Location rows are always locked and updated in ascending id order, so
+ * moves in opposite directions between two locations cannot deadlock.
+ * Listings and capacity checks read the column instead of counting spools per
+ * location. A repair job recomputes counters that drifted (e.g. after manual
+ * database edits).
+ */
+@ApplicationScoped
+public class LocationOccupancyService {
+
+    private static final Logger LOG = Logger.getLogger(LocationOccupancyService.class);
+
+    private static final String ADJUST_QUERY =
+        "UPDATE Location l SET l.spoolCount = l.spoolCount + ?1 WHERE l.id = ?2";
+
+    // Locks the rows in index order. Concurrent moves into the same location queue up
+    // on its row and see the latest committed count; moves elsewhere are not blocked.
+    private static final String LOCK_QUERY =
+        "SELECT l.id, l.spoolCount, l.capacity FROM Location l WHERE l.id IN ?1 ORDER BY l.id";
+
+    private static final String DRIFTED_QUERY =
+        "SELECT l.id FROM Location l"
+        + " WHERE l.spoolCount <> (SELECT COUNT(s) FROM Spool s WHERE s.storageLocation.id = l.id)";
+
+    private static final String RECOUNT_QUERY =
+        "UPDATE Location l SET l.spoolCount ="
+        + " (SELECT COUNT(s) FROM Spool s WHERE s.storageLocation.id = l.id) WHERE l.id = ?1";
+
+    /**
+     * Counter and capacity of a location, read with its row locked.
+     */
+    record Occupancy(long spoolCount, Integer capacity) {
+
+        /**
+         * @return How many of {@code wanted} spools fit
+         */
+        int free(int wanted) {
+            return capacity == null ? wanted : (int) Math.max(0, Math.min(wanted, capacity - spoolCount));
+        }
+    }
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    LocationTreeService treeService;
+
+    void onStart(@Observes StartupEvent event) {
+        // Also fills the counters of locations created before the column existed
+        repair();
+    }
+
+    /**
+     * Put the spool at a storage location (null to take it out of any) and move
+     * its count along. Must be called in the transaction that saves the spool.
+     */
+    public void place(Spool spool, Location location) {
+        Location previous = spool.storageLocation;
+        spool.storageLocation = location;
+        if (sameLocation(previous, location)) {
+            return;
+        }
+        // Lower id first, the order in which location rows are locked
+        if (previous != null && previous.id != null && location != null && location.id != null
+                && location.id < previous.id) {
+            adjust(location, 1);
+            adjust(previous, -1);
+        } else {
+            adjust(previous, -1);
+            adjust(location, 1);
+        }
+    }
+
+    /**
+     * Like {@link #place}, but only if the location has a free place.
+     * @return false, leaving the spool where it was, if the location is at capacity
+     */
+    public boolean placeWithinCapacity(Spool spool, Location location) {
+        Location previous = spool.storageLocation;
+        if (sameLocation(previous, location)) {
+            spool.storageLocation = location;
+            return true;
+        }
+        List<Long> ids = new ArrayList<>(List.of(location.id));
+        if (previous != null && previous.id != null) {
+            ids.add(previous.id);
+        }
+        Occupancy target = lock(ids).get(location.id);
+        if (target == null || target.free(1) == 0) {
+            return false;
+        }
+        spool.storageLocation = location;
+        adjust(previous, -1);
+        adjust(location, 1);
+        return true;
+    }
+
+    /**
+     * {@link #placeWithinCapacity} for many spools, with one counter UPDATE per
+     * location. Spools are placed in list order while the location has room.
+     * @param location The target, or null to take the spools out of any location
+     * @return The spools now at the location, including those already there
+     */
+    public Set<Spool> placeAllWithinCapacity(List<Spool> spools, Location location) {
+        Set<Spool> placed = new HashSet<>();
+        List<Spool> moving = new ArrayList<>();
+        for (Spool spool : spools) {
+            if (sameLocation(spool.storageLocation, location)) {
+                placed.add(spool);
+            } else {
+                moving.add(spool);
+            }
+        }
+        if (moving.isEmpty()) {
+            return placed;
+        }
+
+        // Lock the target together with every source location, in id order
+        Set<Long> ids = new HashSet<>();
+        if (location != null) {
+            ids.add(location.id);
+        }
+        for (Spool spool : moving) {
+            if (spool.storageLocation != null && spool.storageLocation.id != null) {
+                ids.add(spool.storageLocation.id);
+            }
+        }
+        Map<Long, Occupancy> locked = ids.isEmpty() ? Map.of() : lock(ids);
+        int granted = moving.size();
+        if (location != null) {
+            Occupancy target = locked.get(location.id);
+            granted = target != null ? target.free(moving.size()) : 0;
+        }
+
+        List<Spool> moved = moving.subList(0, granted);
+        removed(moved);
+        for (Spool spool : moved) {
+            spool.storageLocation = location;
+        }
+        adjust(location, granted);
+        placed.addAll(moved);
+        return placed;
+    }
+
+    /**
+     * Release the spool's place before it is deleted.
+     */
+    public void removed(Spool spool) {
+        adjust(spool.storageLocation, -1);
+    }
+
+    /**
+     * Release the places of many spools, one UPDATE per location.
+     */
+    public void removed(List<Spool> spools) {
+        for (Map.Entry<Location, Integer> entry : countByLocation(spools).entrySet()) {
+            adjust(entry.getKey(), -entry.getValue());
+        }
+    }
+
+    /**
+     * Count newly inserted spools, one UPDATE per location instead of per spool.
+     */
+    public void added(List<Spool> spools) {
+        for (Map.Entry<Location, Integer> entry : countByLocation(spools).entrySet()) {
+            adjust(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Lock the location rows until commit, in ascending id order.
+     * @return The occupancy of each existing location, by id
+     */
+    private Map<Long, Occupancy> lock(Collection<Long> ids) {
+        List<Object[]> rows = em.createQuery(LOCK_QUERY, Object[].class)
+            .setParameter(1, ids)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList();
+        Map<Long, Occupancy> occupancies = new HashMap<>();
+        for (Object[] row : rows) {
+            occupancies.put((Long) row[0], new Occupancy((Long) row[1], (Integer) row[2]));
+        }
+        return occupancies;
+    }
+
+    private void adjust(Location location, int delta) {
+        if (location == null || location.id == null || delta == 0) {
+            return;
+        }
+        em.createQuery(ADJUST_QUERY)
+            .setParameter(1, (long) delta)
+            .setParameter(2, location.id)
+            .executeUpdate();
+        // The column is not updatable through the entity; keep the loaded value
+        // in step so responses in this transaction show the new count
+        location.spoolCount += delta;
+        TransactionHooks.afterCommit(treeService::invalidate);
+    }
+
+    @Scheduled(cron = "${spooltracker.locations.spool-count-repair-cron:0 30 3 * * ?}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void repair() {
+        try {
+            int repaired = QuarkusTransaction.requiringNew().call(this::recount);
+            if (repaired > 0) {
+                LOG.warnf("Repaired spool counters of %d locations", repaired);
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to repair location spool counters");
+        }
+    }
+
+    /**
+     * Recompute the counters that differ from the actual number of spools.
+     * @return The number of corrected locations
+     */
+    int recount() {
+        List<Long> drifted = em.createQuery(DRIFTED_QUERY, Long.class).getResultList();
+        for (Long id : drifted) {
+            // Counted and written in one statement, so a concurrent move is not overwritten
+            em.createQuery(RECOUNT_QUERY).setParameter(1, id).executeUpdate();
+        }
+        if (!drifted.isEmpty()) {
+            TransactionHooks.afterCommit(treeService::invalidate);
+        }
+        return drifted.size();
+    }
+
+    /**
+     * @return The number of spools per location, in ascending id order so the
+     *         counter updates take the row locks in the same order as {@link #lock}
+     */
+    static Map<Location, Integer> countByLocation(List<Spool> spools) {
+        // Key by id: the same location may be loaded as different instances
+        Map<Long, Location> locations = new TreeMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Spool spool : spools) {
+            Location location = spool.storageLocation;
+            if (location == null || location.id == null) {
+                continue;
+            }
+            locations.putIfAbsent(location.id, location);
+            counts.merge(location.id, 1, Integer::sum);
+        }
+        Map<Location, Integer> byLocation = new LinkedHashMap<>();
+        for (Map.Entry<Long, Location> entry : locations.entrySet()) {
+            byLocation.put(entry.getValue(), counts.get(entry.getKey()));
+        }
+        return byLocation;
+    }
+
+    private static boolean sameLocation(Location a, Location b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.id != null && a.id.equals(b.id);
+    }
+}
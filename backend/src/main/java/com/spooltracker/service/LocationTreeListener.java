@@ -0,0 +1,23 @@
+package com.spooltracker.service;
+
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that drops the cached {@link LocationTreeService} tree
+ * once a location write commits.
+ */
+public class LocationTreeListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        LocationTreeService tree = Arc.container().instance(LocationTreeService.class).get();
+        TransactionHooks.afterCommit(tree::invalidate);
+    }
+}
@@ -0,0 +1,158 @@
+package com.spooltracker.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spooltracker.dto.LocationDTO;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Cached location tree for {@code GET /api/locations/tree}.
+ * <p>
+ * All locations are read in one projection query (spool counts come from the
+ * maintained {@code spool_count} column) and assembled into a tree of any depth
+ * in memory. The serialized JSON and its ETag are kept until a location is written
+ * or a spool count changes, so repeated requests neither query nor serialize, and
+ * clients holding the current ETag get a 304.
+ */
+@ApplicationScoped
+public class LocationTreeService {
+
+    private static final Logger LOG = Logger.getLogger(LocationTreeService.class);
+
+    private static final String LOAD_QUERY = "SELECT l.id, l.name, l.description, l.locationType,"
+        + " parent.id, parent.name, l.capacity, l.icon, l.color, l.sortOrder, l.isActive,"
+        + " l.spoolCount, l.fullPath"
+        + " FROM Location l"
+        + " LEFT JOIN l.parent parent"
+        + " ORDER BY l.sortOrder, l.name";
+
+    /**
+     * Serialized tree with its entity tag value (a content hash).
+     */
+    public record Snapshot(byte[] json, String etag) {}
+
+    @Inject
+    EntityManager em;
+
+    // The application's mapper, so the cached tree is serialized like any other response
+    @Inject
+    ObjectMapper objectMapper;
+
+    // Bumped on every invalidation; a build started before it is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public Snapshot tree() {
+        Snapshot current = snapshot;
+        return current != null ? current : build();
+    }
+
+    /**
+     * Drop the cached tree; the next request rebuilds it.
+     */
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Transactional
+    Snapshot build() {
+        long startGeneration = generation.get();
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = em.createQuery(LOAD_QUERY, Object[].class).getResultList();
+        List<LocationDTO> roots = assemble(rows);
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(roots);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize location tree", e);
+        }
+        Snapshot built = new Snapshot(json, etagOf(json));
+        synchronized (this) {
+            // A write that committed while we were reading may not be in the rows
+            if (generation.get() == startGeneration) {
+                snapshot = built;
+            }
+        }
+        LOG.debugf("Location tree built: %d locations in %d ms", rows.size(), System.currentTimeMillis() - start);
+        return built;
+    }
+
+    /**
+     * Assemble the rows of {@link #LOAD_QUERY} into trees under the active root
+     * locations. Rows arrive in display order, which is kept among siblings.
+     */
+    static List<LocationDTO> assemble(List<Object[]> rows) {
+        Map<Long, List<Object[]>> childRows = new HashMap<>();
+        List<Object[]> rootRows = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long parentId = (Long) row[4];
+            if (parentId == null) {
+                if (!Boolean.FALSE.equals(row[10])) {
+                    rootRows.add(row);
+                }
+            } else {
+                childRows.computeIfAbsent(parentId, id -> new ArrayList<>()).add(row);
+            }
+        }
+        List<LocationDTO> roots = new ArrayList<>(rootRows.size());
+        for (Object[] row : rootRows) {
+            roots.add(toNode(row, childRows));
+        }
+        return roots;
+    }
+
+    private static LocationDTO toNode(Object[] row, Map<Long, List<Object[]>> childRows) {
+        List<Object[]> rows = childRows.get((Long) row[0]);
+        // Leaves have no children list, so it is left out of the JSON
+        List<LocationDTO> children = null;
+        if (rows != null) {
+            children = new ArrayList<>(rows.size());
+            for (Object[] child : rows) {
+                children.add(toNode(child, childRows));
+            }
+        }
+        return new LocationDTO(
+            (Long) row[0],
+            (String) row[1],
+            (String) row[2],
+            (String) row[3],
+            (Long) row[4],
+            (String) row[5],
+            (Integer) row[6],
+            (String) row[7],
+            (String) row[8],
+            (Integer) row[9],
+            (Boolean) row[10],
+            (Long) row[11],
+            row[12] != null ? (String) row[12] : (String) row[1],
+            children
+        );
+    }
+
+    static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.spooltracker.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.spooltracker.dto.ParseJobDTO;
+import com.spooltracker.dto.PrintJobParseResultDTO;
+
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Runs 3MF parsing and spool matching in the background so uploads do not hold
+ * HTTP worker threads.
+ * <p>
+ * Jobs run on virtual threads, but at most {@code concurrency} at a time; up to
+ * {@code queue-depth} further jobs wait and anything beyond that is rejected, so
+ * a burst of uploads cannot starve the rest of the API. Finished jobs are kept
+ * for the configured retention so clients can poll or subscribe late.
+ */
+@ApplicationScoped
+public class ParseJobService {
+
+    private static final Logger LOG = Logger.getLogger(ParseJobService.class);
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Inject
+    PrintJobService printJobService;
+
+    @ConfigProperty(name = "spooltracker.parse-jobs.concurrency", defaultValue = "2")
+    int concurrency;
+
+    @ConfigProperty(name = "spooltracker.parse-jobs.queue-depth", defaultValue = "16")
+    int queueDepth;
+
+    @ConfigProperty(name = "spooltracker.parse-jobs.retention", defaultValue = "PT15M")
+    Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueDepth),
+            Thread.ofVirtual().name("parse-job-", 0).factory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a parse job. The uploaded file is moved into job-owned storage because
+     * the framework deletes uploads once the request completes.
+     * @return The queued job, or null if the queue is full
+     */
+    public ParseJobDTO submit(Path upload, String fileName, Integer plate) throws IOException {
+        purgeExpired();
+
+        Path file = Files.createTempFile("parse-job-", ".3mf");
+        try {
+            Files.move(upload, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), fileName, plate);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(file);
+            return null;
+        }
+        return job.toDTO();
+    }
+
+    public ParseJobDTO get(String id) {
+        Job job = jobs.get(id);
+        return job != null ? job.toDTO() : null;
+    }
+
+    /**
+     * Receive the job's current state and every later change until it finishes.
+     * @return false if the job does not exist
+     */
+    public boolean subscribe(String id, Consumer<ParseJobDTO> listener) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.subscribe(listener);
+        return true;
+    }
+
+    private void run(Job job, Path file) {
+        job.update(STATUS_RUNNING, null, null);
+        try {
+            PrintJobParseResultDTO result = printJobService.analyze(file, job.fileName, job.plate);
+            job.update(STATUS_COMPLETED, result, null);
+        } catch (IllegalArgumentException e) {
+            job.update(STATUS_FAILED, null, e.getMessage());
+        } catch (Exception e) {
+            LOG.warnf(e, "Parse job %s failed", job.id);
+            job.update(STATUS_FAILED, null, "Failed to parse 3MF file: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warnf(e, "Failed to delete parse job file %s", file);
+            }
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Mutable job state; updates are published to subscribers under the job's lock
+     * so a late subscriber never misses the terminal event.
+     */
+    private static class Job {
+        private final String id;
+        private final String fileName;
+        private final Integer plate;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<Consumer<ParseJobDTO>> listeners = new CopyOnWriteArrayList<>();
+        private String status = STATUS_QUEUED;
+        private volatile LocalDateTime completedAt;
+        private String error;
+        private PrintJobParseResultDTO result;
+
+        Job(String id, String fileName, Integer plate) {
+            this.id = id;
+            this.fileName = fileName;
+            this.plate = plate;
+        }
+
+        synchronized void update(String status, PrintJobParseResultDTO result, String error) {
+            this.status = status;
+            this.result = result;
+            this.error = error;
+            if (isFinished()) {
+                completedAt = LocalDateTime.now();
+            }
+            ParseJobDTO dto = toDTO();
+            for (Consumer<ParseJobDTO> listener : listeners) {
+                notify(listener, dto);
+            }
+            if (isFinished()) {
+                listeners.clear();
+            }
+        }
+
+        synchronized void subscribe(Consumer<ParseJobDTO> listener) {
+            notify(listener, toDTO());
+            if (!isFinished()) {
+                listeners.add(listener);
+            }
+        }
+
+        synchronized ParseJobDTO toDTO() {
+            return new ParseJobDTO(id, status, fileName, plate, createdAt, completedAt, error, result);
+        }
+
+        private boolean isFinished() {
+            return STATUS_COMPLETED.equals(status) || STATUS_FAILED.equals(status);
+        }
+
+        private void notify(Consumer<ParseJobDTO> listener, ParseJobDTO dto) {
+            try {
+                listener.accept(dto);
+            } catch (RuntimeException e) {
+                // A disconnected client must not break the job or other subscribers
+                listeners.remove(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.spooltracker.service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.logging.Logger;
+
+import com.spooltracker.dto.FilamentDeductionDTO;
+import com.spooltracker.dto.FilamentMatchDTO;
+import com.spooltracker.dto.FilamentMatchDTO.SpoolMatchDTO;
+import com.spooltracker.dto.FilamentUsageDTO;
+import com.spooltracker.dto.PrintJobParseResultDTO;
+import com.spooltracker.dto.PrintJobParseResultDTO.PlateDTO;
+import com.spooltracker.dto.SpoolDTO;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Turns an uploaded 3MF file into filament usage matched against the spool inventory.
+ * Shared by the synchronous parse endpoint and background parse jobs.
+ */
+@ApplicationScoped
+public class PrintJobService {
+
+    @Inject
+    ThreeMFParseCache parseCache;
+
+    @Inject
+    SpoolMatchIndex matchIndex;
+
+    @Inject
+    SpoolHistoryService historyService;
+
+    private static final Logger LOG = Logger.getLogger(PrintJobService.class);
+
+    // Spools below this weight are marked empty after a deduction
+    private static final double EMPTY_THRESHOLD_GRAMS = 50;
+
+    private static final int MAX_CONFIRM_ATTEMPTS = 5;
+
+    private static final String CONFIRM_QUERY = "SELECT s FROM Spool s"
+        + " JOIN FETCH s.filamentType"
+        + " JOIN FETCH s.color"
+        + " JOIN FETCH s.manufacturer"
+        + " LEFT JOIN FETCH s.storageLocation"
+        + " WHERE s.id IN ?1";
+
+    /**
+     * Parse a 3MF file and match every plate's filaments to available spools
+     * @param file The uploaded 3MF file
+     * @param fileName The original file name
+     * @param plate The plate whose data fills the top-level fields, or null for the first plate
+     */
+    public PrintJobParseResultDTO analyze(Path file, String fileName, Integer plate) throws Exception {
+        // Parse the 3MF file straight from the uploaded temp file; reprints hit the cache
+        ThreeMFParserService.ParseResult parseResult = parseCache.parse(file);
+
+        ThreeMFParserService.PlateResult selected = parseResult.plate(plate);
+
+        // Match each plate's filaments to available spools
+        List<PlateDTO> plates = new ArrayList<>();
+        PlateDTO selectedPlate = null;
+        for (ThreeMFParserService.PlateResult plateResult : parseResult.plates()) {
+            PlateDTO plateDTO = toPlateDTO(plateResult);
+            plates.add(plateDTO);
+            if (plateResult == selected) {
+                selectedPlate = plateDTO;
+            }
+        }
+
+        return new PrintJobParseResultDTO(
+            fileName,
+            parseResult.printerModel(),
+            selectedPlate.index(),
+            selectedPlate.estimatedTimeSeconds(),
+            selectedPlate.totalWeightGrams(),
+            selectedPlate.usesSupport(),
+            selectedPlate.filaments(),
+            plates
+        );
+    }
+
+    private PlateDTO toPlateDTO(ThreeMFParserService.PlateResult plate) {
+        List<FilamentMatchDTO> filamentMatches = new ArrayList<>();
+        for (FilamentUsageDTO usage : plate.filaments()) {
+            List<SpoolMatchDTO> matchingSpools = matchIndex.findMatches(usage);
+            filamentMatches.add(new FilamentMatchDTO(usage, matchingSpools, null));
+        }
+        return new PlateDTO(
+            plate.index(),
+            plate.estimatedTimeSeconds(),
+            plate.totalWeightGrams(),
+            plate.usesSupport(),
+            plate.objects(),
+            filamentMatches
+        );
+    }
+
+    /**
+     * Deduct filament for a print job in one transaction.
+     * All referenced spools are loaded with a single query and the spool updates are
+     * flushed together (JDBC-batched); if any spool is missing nothing is applied.
+     * Spools are versioned, so when another request changed one of them in the
+     * meantime the whole job is retried against fresh weights rather than losing
+     * either deduction.
+     * @param deductions The deductions to apply
+     * @param plate Only apply deductions for this plate (and those without a plate), or null for all
+     * @return The updated spools, one per applied deduction
+     */
+    public List<SpoolDTO> confirm(List<FilamentDeductionDTO> deductions, Integer plate) {
+        List<FilamentDeductionDTO> applicable = new ArrayList<>();
+        Set<Long> spoolIds = new LinkedHashSet<>();
+        for (FilamentDeductionDTO deduction : deductions) {
+            if (deduction.spoolId() == null || deduction.gramsUsed() <= 0) {
+                continue;
+            }
+            if (plate != null && deduction.plateIndex() != null && !plate.equals(deduction.plateIndex())) {
+                continue;
+            }
+            applicable.add(deduction);
+            spoolIds.add(deduction.spoolId());
+        }
+        if (applicable.isEmpty()) {
+            return List.of();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return QuarkusTransaction.requiringNew().call(() -> applyDeductions(applicable, spoolIds));
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_CONFIRM_ATTEMPTS || !TransactionHooks.isVersionConflict(e)) {
+                    throw e;
+                }
+                LOG.debugf("Version conflict confirming print job, retrying (attempt %d)", attempt);
+            }
+        }
+    }
+
+    private List<SpoolDTO> applyDeductions(List<FilamentDeductionDTO> applicable, Set<Long> spoolIds) {
+        Map<Long, Spool> spools = new HashMap<>();
+        for (Spool spool : Spool.<Spool>find(CONFIRM_QUERY, spoolIds).list()) {
+            spools.put(spool.id, spool);
+        }
+        for (Long spoolId : spoolIds) {
+            if (!spools.containsKey(spoolId)) {
+                throw new IllegalArgumentException("Spool not found: " + spoolId);
+            }
+        }
+
+        List<Spool> updated = new ArrayList<>(applicable.size());
+        for (FilamentDeductionDTO deduction : applicable) {
+            Spool spool = spools.get(deduction.spoolId());
+
+            double currentWeight = spool.currentWeightGrams != null ? spool.currentWeightGrams : 0;
+            double newWeight = Math.max(0, currentWeight - deduction.gramsUsed());
+
+            // Record the weight change
+            Double oldWeight = spool.currentWeightGrams;
+            spool.currentWeightGrams = newWeight;
+
+            // Auto-mark as empty if weight is very low
+            if (newWeight < EMPTY_THRESHOLD_GRAMS) {
+                spool.isEmpty = true;
+            }
+
+            historyService.recordWeightUpdate(spool, oldWeight, newWeight);
+            updated.add(spool);
+        }
+        // Flush here so a version conflict surfaces inside the retry loop
+        Spool.flush();
+
+        List<SpoolDTO> result = new ArrayList<>(updated.size());
+        for (Spool spool : updated) {
+            result.add(SpoolDTO.from(spool));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,304 @@
+package com.spooltracker.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.logging.Logger;
+
+import com.spooltracker.dto.BulkSpoolOperationDTO;
+import com.spooltracker.dto.BulkSpoolOperationDTO.Item;
+import com.spooltracker.dto.BulkSpoolOperationDTO.Operation;
+import com.spooltracker.dto.BulkSpoolResultDTO;
+import com.spooltracker.dto.BulkSpoolResultDTO.ItemResult;
+import com.spooltracker.dto.SpoolDTO;
+import com.spooltracker.entity.Location;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolHistory;
+import com.spooltracker.entity.SpoolLocation;
+import com.spooltracker.util.Sanitizer;
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Applies one operation (move, weigh, mark empty, delete) to many spools in one transaction.
+ * <p>
+ * The spools are loaded with one query and changed as entities, so the updates and
+ * deletes go out in JDBC batches at flush while version checks and the index and
+ * change-feed listeners keep working. Location counters are adjusted once per
+ * location, history goes through the batching journal, and history of deleted
+ * spools is removed with one statement. Items that cannot be applied (unknown
+ * spool, invalid weight, no room at the target) are reported per item without
+ * failing the rest. A version conflict retries the whole request, as print job
+ * confirmation does.
+ */
+@ApplicationScoped
+public class SpoolBulkService {
+
+    private static final Logger LOG = Logger.getLogger(SpoolBulkService.class);
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    // Same threshold as a single weight update
+    private static final double EMPTY_THRESHOLD_GRAMS = 50;
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String LOAD_QUERY = "SELECT s FROM Spool s"
+        + " JOIN FETCH s.filamentType"
+        + " JOIN FETCH s.color"
+        + " JOIN FETCH s.manufacturer"
+        + " LEFT JOIN FETCH s.storageLocation"
+        + " WHERE s.id IN ?1 OR s.uid IN ?2";
+
+    @Inject
+    SpoolHistoryService historyService;
+
+    @Inject
+    SpoolHistoryJournal historyJournal;
+
+    @Inject
+    SpoolChangeService changeService;
+
+    @Inject
+    LocationOccupancyService occupancyService;
+
+    /**
+     * @throws IllegalArgumentException if the request as a whole is invalid (e.g. unknown target location)
+     */
+    public BulkSpoolResultDTO apply(BulkSpoolOperationDTO request) {
+        if (request.operation() == Operation.MOVE
+                && request.storageLocationId() == null && request.location() == null) {
+            throw new IllegalArgumentException("Target location is required");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return QuarkusTransaction.requiringNew().call(() -> applyOnce(request));
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS || !TransactionHooks.isVersionConflict(e)) {
+                    throw e;
+                }
+                LOG.debugf("Version conflict applying bulk %s, retrying (attempt %d)", request.operation(), attempt);
+            }
+        }
+    }
+
+    private BulkSpoolResultDTO applyOnce(BulkSpoolOperationDTO request) {
+        Location target = null;
+        if (request.operation() == Operation.MOVE && request.storageLocationId() != null) {
+            target = Location.findById(request.storageLocationId());
+            if (target == null) {
+                throw new IllegalArgumentException("Storage location not found");
+            }
+        }
+
+        List<Item> items = request.items();
+        ItemResult[] results = new ItemResult[items.size()];
+        Spool[] spools = resolve(items, load(items), results);
+
+        // Items still without a result are applied
+        List<Integer> pending = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] == null) {
+                pending.add(i);
+            }
+        }
+        switch (request.operation()) {
+            case MOVE -> move(request, target, spools, pending, results);
+            case WEIGH -> weigh(items, spools, pending, results);
+            case MARK_EMPTY -> markEmpty(spools, pending, results);
+            case DELETE -> delete(spools, pending, results);
+        }
+        // Send the batched updates now so a version conflict surfaces inside the retry loop
+        Spool.flush();
+
+        int succeeded = 0;
+        for (ItemResult result : results) {
+            if (STATUS_OK.equals(result.status())) {
+                succeeded++;
+            }
+        }
+        return new BulkSpoolResultDTO(request.operation(), succeeded, results.length - succeeded, List.of(results));
+    }
+
+    private void move(BulkSpoolOperationDTO request, Location target, Spool[] spools,
+                      List<Integer> pending, ItemResult[] results) {
+        List<Spool> moving = new ArrayList<>(pending.size());
+        Map<Spool, String> oldLocations = new HashMap<>();
+        for (int i : pending) {
+            moving.add(spools[i]);
+            oldLocations.put(spools[i], spools[i].getLocationName());
+        }
+
+        Set<Spool> placed = occupancyService.placeAllWithinCapacity(moving, target);
+        String details = target != null ? Sanitizer.sanitize(request.locationDetails()) : null;
+        for (int i : pending) {
+            Spool spool = spools[i];
+            if (!placed.contains(spool)) {
+                results[i] = rejected(spool, "Location is at full capacity (" + target.capacity + " spools)");
+                continue;
+            }
+            if (target != null) {
+                spool.legacyLocation = null;
+                spool.locationDetails = details;
+            } else {
+                spool.legacyLocation = request.location();
+                if (request.locationDetails() != null) {
+                    spool.locationDetails = Sanitizer.sanitize(request.locationDetails());
+                }
+            }
+            String oldLocation = oldLocations.get(spool);
+            String newLocation = spool.getLocationName();
+            if (oldLocation != null && newLocation != null && !oldLocation.equals(newLocation)) {
+                historyService.recordLocationChange(spool, oldLocation, newLocation);
+            }
+            results[i] = ok(spool);
+        }
+    }
+
+    private void weigh(List<Item> items, Spool[] spools, List<Integer> pending, ItemResult[] results) {
+        for (int i : pending) {
+            Item item = items.get(i);
+            Spool spool = spools[i];
+            if (item.weight() == null || item.weight() <= 0) {
+                results[i] = rejected(spool, "Weight must be greater than 0");
+                continue;
+            }
+            Double oldWeight = spool.currentWeightGrams;
+            spool.currentWeightGrams = item.weight();
+            spool.lastUsedDate = LocalDate.now();
+            // Auto-mark as empty if weight is very low
+            if (item.weight() < EMPTY_THRESHOLD_GRAMS) {
+                spool.isEmpty = true;
+            }
+            historyService.recordWeightUpdate(spool, oldWeight, item.weight());
+            results[i] = ok(spool);
+        }
+    }
+
+    private void markEmpty(Spool[] spools, List<Integer> pending, ItemResult[] results) {
+        List<Spool> emptied = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            Spool spool = spools[i];
+            if (spool.isEmpty == null || !spool.isEmpty) {
+                emptied.add(spool);
+            }
+        }
+        // Taking spools out of their locations never runs into capacity
+        occupancyService.placeAllWithinCapacity(emptied, null);
+        for (Spool spool : emptied) {
+            spool.isEmpty = true;
+            spool.currentWeightGrams = 0.0;
+            spool.legacyLocation = SpoolLocation.EMPTY;
+            historyService.recordMarkedEmpty(spool);
+        }
+        for (int i : pending) {
+            results[i] = ok(spools[i]);
+        }
+    }
+
+    private void delete(Spool[] spools, List<Integer> pending, ItemResult[] results) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Spool> deleted = new ArrayList<>(pending.size());
+        List<Long> ids = new ArrayList<>(pending.size());
+        LocalDateTime earliest = null;
+        for (int i : pending) {
+            Spool spool = spools[i];
+            deleted.add(spool);
+            ids.add(spool.id);
+            if (earliest == null || spool.createdAt.isBefore(earliest)) {
+                earliest = spool.createdAt;
+            }
+        }
+
+        // Delete spool history with the spools, including entries still queued in the journal.
+        // No history predates the oldest spool, so a partitioned table can skip older months.
+        historyJournal.flush();
+        SpoolHistory.delete("spool.id in ?1 and createdAt >= ?2", ids,
+            earliest.toLocalDate().withDayOfMonth(1).atStartOfDay());
+
+        occupancyService.removed(deleted);
+        for (int i : pending) {
+            Spool spool = spools[i];
+            // Tell change feed clients about the deletion
+            changeService.recordDeletion(spool);
+            spool.delete();
+            results[i] = new ItemResult(spool.id, spool.uid, STATUS_OK, null, null);
+        }
+    }
+
+    private static List<Spool> load(List<Item> items) {
+        List<Long> ids = new ArrayList<>();
+        List<String> uids = new ArrayList<>();
+        for (Item item : items) {
+            if (item.id() != null) {
+                ids.add(item.id());
+            } else if (item.uid() != null && !item.uid().isBlank()) {
+                uids.add(item.uid().trim());
+            }
+        }
+        // Keep both IN lists non-empty; no spool has id 0 or an empty UID
+        return Spool.<Spool>find(LOAD_QUERY,
+            ids.isEmpty() ? List.of(0L) : ids,
+            uids.isEmpty() ? List.of("") : uids).list();
+    }
+
+    /**
+     * Match each item to its spool. Items without a spool, and repeats of a spool
+     * listed earlier, get their result here.
+     * @return The spool of each item, by position
+     */
+    static Spool[] resolve(List<Item> items, List<Spool> loaded, ItemResult[] results) {
+        Map<Long, Spool> byId = new HashMap<>();
+        Map<String, Spool> byUid = new HashMap<>();
+        for (Spool spool : loaded) {
+            byId.put(spool.id, spool);
+            byUid.put(uidKey(spool.uid), spool);
+        }
+
+        Spool[] spools = new Spool[items.size()];
+        Set<Spool> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (item.id() == null && (item.uid() == null || item.uid().isBlank())) {
+                results[i] = new ItemResult(null, item.uid(), STATUS_REJECTED, "Spool id or UID is required", null);
+                continue;
+            }
+            Spool spool = item.id() != null ? byId.get(item.id()) : byUid.get(uidKey(item.uid()));
+            if (spool == null) {
+                results[i] = new ItemResult(item.id(), item.uid(), STATUS_NOT_FOUND, "Spool not found", null);
+            } else if (!seen.add(spool)) {
+                results[i] = rejected(spool, "Spool is listed more than once");
+            } else {
+                spools[i] = spool;
+            }
+        }
+        return spools;
+    }
+
+    private static ItemResult ok(Spool spool) {
+        return new ItemResult(spool.id, spool.uid, STATUS_OK, null, SpoolDTO.from(spool));
+    }
+
+    private static ItemResult rejected(Spool spool, String error) {
+        return new ItemResult(spool.id, spool.uid, STATUS_REJECTED, error, null);
+    }
+
+    private static String uidKey(String uid) {
+        // UIDs are compared case-insensitively, like the database collation
+        return uid.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,203 @@
+package com.spooltracker.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.spooltracker.constants.AppConstants;
+import com.spooltracker.dto.SpoolChangesDTO;
+import com.spooltracker.dto.SpoolChangesDTO.DeletedSpoolDTO;
+import com.spooltracker.dto.SpoolDTO;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolTombstone;
+import com.spooltracker.util.Cursor;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Incremental spool change feed for clients that keep a copy of the inventory.
+ * <p>
+ * Spools (by {@code updatedAt}) and tombstones of deleted spools (by {@code deletedAt})
+ * are merged into one stream ordered by (time, spool id), and pages are continued
+ * with an opaque token holding the position of the last item. Both sides are read
+ * with a seek predicate on an index, so a poll costs as much as the changes it returns.
+ * <p>
+ * The feed stops a short lag behind the current time, so changes from transactions
+ * that committed slightly after their timestamp was taken are not skipped.
+ */
+@ApplicationScoped
+public class SpoolChangeService {
+
+    private static final Logger LOG = Logger.getLogger(SpoolChangeService.class);
+
+    private static final Comparator<Cursor.Position> ORDER =
+        Comparator.comparing(Cursor.Position::timestamp).thenComparingLong(Cursor.Position::id);
+
+    private static final String TOMBSTONE_QUERY = "FROM SpoolTombstone t WHERE %s ORDER BY t.deletedAt, t.spoolId";
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    SpoolQueryService spoolQueryService;
+
+    @ConfigProperty(name = "spooltracker.export.changes.lag", defaultValue = "PT5S")
+    Duration lag;
+
+    @ConfigProperty(name = "spooltracker.export.changes.tombstone-retention", defaultValue = "P90D")
+    Duration tombstoneRetention;
+
+    /**
+     * Fetch the changes after a position.
+     * @param token The nextToken of a previous response; takes precedence over {@code since}
+     * @param since ISO date or date-time; changes at or after it are returned
+     * @param limit Maximum number of changed plus deleted spools
+     * @throws IllegalArgumentException if the token or date is malformed, or older than the tombstone retention
+     */
+    public SpoolChangesDTO changes(String token, String since, int limit) {
+        Cursor.Position after = token != null && !token.isBlank() ? Cursor.decodePosition(token) : sincePosition(since);
+        int max = limit > 0 ? Math.min(limit, AppConstants.MAX_PAGE_SIZE) : AppConstants.DEFAULT_PAGE_SIZE;
+        LocalDateTime now = LocalDateTime.now();
+        if (after != null && after.timestamp().isBefore(now.minus(tombstoneRetention))) {
+            // Deletions that old may already be purged; only a full export is reliable
+            throw new IllegalArgumentException("Change position is older than the tombstone retention of "
+                + tombstoneRetention.toDays() + " days, please run a full export");
+        }
+        LocalDateTime upTo = now.minus(lag);
+
+        // Fetch one extra item per side to know whether more changes exist
+        List<Object> spoolParams = new ArrayList<>();
+        List<SpoolDTO> spools = spoolQueryService.list(
+            seekCondition("s.updatedAt", "s.id", after, upTo, spoolParams),
+            spoolParams, "s.updatedAt, s.id", 0, max + 1);
+
+        List<Object> tombstoneParams = new ArrayList<>();
+        TypedQuery<SpoolTombstone> tombstoneQuery = em.createQuery(String.format(TOMBSTONE_QUERY,
+                seekCondition("t.deletedAt", "t.spoolId", after, upTo, tombstoneParams)), SpoolTombstone.class)
+            .setMaxResults(max + 1);
+        for (int i = 0; i < tombstoneParams.size(); i++) {
+            tombstoneQuery.setParameter(i + 1, tombstoneParams.get(i));
+        }
+        List<SpoolTombstone> tombstones = tombstoneQuery.getResultList();
+
+        List<Cursor.Position> spoolPositions = new ArrayList<>(spools.size());
+        for (SpoolDTO spool : spools) {
+            spoolPositions.add(new Cursor.Position(spool.updatedAt(), spool.id()));
+        }
+        List<Cursor.Position> tombstonePositions = new ArrayList<>(tombstones.size());
+        for (SpoolTombstone tombstone : tombstones) {
+            tombstonePositions.add(new Cursor.Position(tombstone.deletedAt, tombstone.spoolId));
+        }
+
+        int[] taken = merge(spoolPositions, tombstonePositions, max);
+        boolean hasMore = taken[0] < spools.size() || taken[1] < tombstones.size();
+
+        List<DeletedSpoolDTO> deleted = new ArrayList<>(taken[1]);
+        for (SpoolTombstone tombstone : tombstones.subList(0, taken[1])) {
+            deleted.add(DeletedSpoolDTO.from(tombstone));
+        }
+
+        Cursor.Position next;
+        if (hasMore) {
+            next = last(spoolPositions.subList(0, taken[0]), tombstonePositions.subList(0, taken[1]));
+        } else {
+            // Everything up to the lag horizon has been seen
+            next = new Cursor.Position(upTo, Long.MAX_VALUE);
+            if (after != null && ORDER.compare(next, after) < 0) {
+                next = after;
+            }
+        }
+        return new SpoolChangesDTO(
+            new ArrayList<>(spools.subList(0, taken[0])),
+            deleted,
+            Cursor.encode(next.timestamp(), next.id()),
+            hasMore
+        );
+    }
+
+    /**
+     * Record that a spool is being deleted. Must be called in the deleting transaction.
+     */
+    public void recordDeletion(Spool spool) {
+        SpoolTombstone.of(spool).persist();
+    }
+
+    @Scheduled(cron = "${spooltracker.export.changes.purge-cron:0 45 3 * * ?}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purgeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention);
+        long purged = QuarkusTransaction.requiringNew().call(() -> SpoolTombstone.delete("deletedAt < ?1", cutoff));
+        if (purged > 0) {
+            LOG.infof("Purged %d spool tombstones older than %s", purged, cutoff);
+        }
+    }
+
+    private static Cursor.Position sincePosition(String since) {
+        if (since == null || since.isBlank()) {
+            return null;
+        }
+        try {
+            String value = since.trim();
+            LocalDateTime time = value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+            // Inclusive: ids are positive, so (time, 0) precedes every row at that time
+            return new Cursor.Position(time, 0);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid 'since' date: " + since);
+        }
+    }
+
+    private static String seekCondition(String timeColumn, String idColumn, Cursor.Position after,
+                                        LocalDateTime upTo, List<Object> params) {
+        params.add(upTo);
+        String condition = timeColumn + " <= ?" + params.size();
+        if (after != null) {
+            params.add(after.timestamp());
+            int timeParam = params.size();
+            params.add(after.id());
+            condition += " AND (" + timeColumn + " > ?" + timeParam
+                + " OR (" + timeColumn + " = ?" + timeParam + " AND " + idColumn + " > ?" + params.size() + "))";
+        }
+        return condition;
+    }
+
+    /**
+     * Walk two position-ordered lists in merged order and take at most {@code limit} items.
+     * @return How many items were taken from each list
+     */
+    static int[] merge(List<Cursor.Position> first, List<Cursor.Position> second, int limit) {
+        int i = 0;
+        int j = 0;
+        while (i + j < limit && (i < first.size() || j < second.size())) {
+            if (j >= second.size() || (i < first.size() && ORDER.compare(first.get(i), second.get(j)) <= 0)) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new int[] { i, j };
+    }
+
+    private static Cursor.Position last(List<Cursor.Position> first, List<Cursor.Position> second) {
+        if (first.isEmpty()) {
+            return second.get(second.size() - 1);
+        }
+        if (second.isEmpty()) {
+            return first.get(first.size() - 1);
+        }
+        Cursor.Position a = first.get(first.size() - 1);
+        Cursor.Position b = second.get(second.size() - 1);
+        return ORDER.compare(a, b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,212 @@
+package com.spooltracker.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
+
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolLocation;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams the spool CSV export.
+ * <p>
+ * Rows are read as a flat projection with a bounded JDBC fetch size, so no entities
+ * or associations are loaded, and each row is formatted into a reused buffer before
+ * being written out. Memory use does not depend on the number of spools, and the
+ * header is sent before the first row is read.
+ */
+@ApplicationScoped
+public class SpoolExportService {
+
+    public static final String CSV_HEADER = "UID,Color Name,Material,Manufacturer,Filament Type,Location,Color Number,"
+        + "Initial Weight (g),Current Weight (g),Remaining %,Purchase Date,Opened Date,"
+        + "Last Used Date,Purchase Price,Currency,Is Empty,Notes\n";
+
+    private static final String EXPORT_QUERY = "SELECT s.uid, c.name, mat.name, mf.name, ft.name, loc.name,"
+        + " s.legacyLocation, s.colorNumber, s.initialWeightGrams, s.currentWeightGrams,"
+        + " s.purchaseDate, s.openedDate, s.lastUsedDate, s.purchasePrice, s.purchaseCurrency, s.isEmpty, s.notes"
+        + " FROM Spool s"
+        + " LEFT JOIN s.color c"
+        + " LEFT JOIN s.filamentType ft"
+        + " LEFT JOIN ft.material mat"
+        + " LEFT JOIN s.manufacturer mf"
+        + " LEFT JOIN s.storageLocation loc"
+        + " ORDER BY s.id";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "spooltracker.export.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    @ConfigProperty(name = "spooltracker.export.timeout", defaultValue = "PT30M")
+    Duration timeout;
+
+    /**
+     * Write every spool as CSV to the output stream.
+     */
+    public void writeCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        // Let the client see the response start before the query runs
+        writer.flush();
+
+        try {
+            QuarkusTransaction.requiringNew().timeout((int) timeout.toSeconds()).run(() -> {
+                StringBuilder row = new StringBuilder(512);
+                char[] chars = new char[512];
+                try (Stream<Object[]> rows = em.createQuery(EXPORT_QUERY, Object[].class)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultStream()) {
+                    Iterator<Object[]> results = rows.iterator();
+                    while (results.hasNext()) {
+                        row.setLength(0);
+                        appendRow(row, results.next());
+                        if (chars.length < row.length()) {
+                            chars = new char[row.length() * 2];
+                        }
+                        row.getChars(0, row.length(), chars, 0);
+                        writer.write(chars, 0, row.length());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    static void appendRow(StringBuilder row, Object[] values) {
+        appendCsv(row, (String) values[0]).append(',');
+        appendCsv(row, (String) values[1]).append(',');
+        appendCsv(row, (String) values[2]).append(',');
+        appendCsv(row, (String) values[3]).append(',');
+        appendCsv(row, (String) values[4]).append(',');
+        // Storage location takes precedence over the legacy enum, as in Spool.getLocationName()
+        String location = (String) values[5];
+        if (location == null && values[6] != null) {
+            location = ((SpoolLocation) values[6]).getDisplayName();
+        }
+        appendCsv(row, location).append(',');
+        appendCsv(row, (String) values[7]).append(',');
+
+        Double initialWeight = (Double) values[8];
+        Double currentWeight = (Double) values[9];
+        if (initialWeight != null) {
+            row.append(initialWeight.doubleValue());
+        }
+        row.append(',');
+        if (currentWeight != null) {
+            row.append(currentWeight.doubleValue());
+        }
+        row.append(',');
+        Double remaining = Spool.remainingPercentage(initialWeight, currentWeight);
+        if (remaining != null) {
+            appendFixed2(row, remaining);
+        }
+        row.append(',');
+
+        appendDate(row, (LocalDate) values[10]).append(',');
+        appendDate(row, (LocalDate) values[11]).append(',');
+        appendDate(row, (LocalDate) values[12]).append(',');
+        if (values[13] != null) {
+            row.append(((Double) values[13]).doubleValue());
+        }
+        row.append(',');
+        appendCsv(row, (String) values[14]).append(',');
+        row.append(Boolean.TRUE.equals(values[15]) ? "Yes" : "No").append(',');
+        appendCsv(row, (String) values[16]).append('\n');
+    }
+
+    /**
+     * Append a value, quoting it if it contains a comma, newline or quote.
+     */
+    static StringBuilder appendCsv(StringBuilder row, String value) {
+        if (value == null) {
+            return row;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '\n' || c == '"';
+        }
+        if (!quote) {
+            return row.append(value);
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        return row.append('"');
+    }
+
+    /**
+     * Append a value with two decimals (like {@code %.2f} in the root locale) without
+     * going through {@link String#format}.
+     */
+    static StringBuilder appendFixed2(StringBuilder row, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15) {
+            return row.append(String.format(Locale.ROOT, "%.2f", value));
+        }
+        long hundredths = Math.round(Math.abs(value) * 100);
+        if (value < 0 && hundredths != 0) {
+            row.append('-');
+        }
+        row.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            row.append('0');
+        }
+        return row.append(fraction);
+    }
+
+    /**
+     * Append an ISO-8601 date, as {@link LocalDate#toString()} would.
+     */
+    static StringBuilder appendDate(StringBuilder row, LocalDate date) {
+        if (date == null) {
+            return row;
+        }
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            return row.append(date);
+        }
+        row.append(year).append('-');
+        appendTwoDigits(row, date.getMonthValue()).append('-');
+        return appendTwoDigits(row, date.getDayOfMonth());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder row, int value) {
+        if (value < 10) {
+            row.append('0');
+        }
+        return row.append(value);
+    }
+}
@@ -0,0 +1,307 @@
+package com.spooltracker.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolHistory;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compacts old WEIGHT_UPDATED history into per-day rollups.
+ * <p>
+ * Rows older than the raw retention window are grouped per spool into runs of
+ * consecutive WEIGHT_UPDATED entries on the same day; each run of two or more rows
+ * is replaced by a single {@value #ACTION_ROLLUP} entry holding the first, last and
+ * minimum weight and the number of updates. Other actions are never touched and
+ * break runs, so the remaining history still reads in order.
+ * <p>
+ * Each batch of spools is compacted in its own transaction, so a run can stop at
+ * any point and the next one continues with whatever raw rows are left.
+ * <p>
+ * A sweep only looks at days between the cutoff of the previous finished sweep
+ * (the watermark) and its own cutoff, and only at spools with two or more weight
+ * updates on one of those days, so history that was already compacted, or had
+ * nothing to compact, is not read again. The watermark is kept in memory; after
+ * a restart the first sweep covers all history once.
+ */
+@ApplicationScoped
+public class SpoolHistoryCompactionService {
+
+    private static final Logger LOG = Logger.getLogger(SpoolHistoryCompactionService.class);
+
+    public static final String ACTION_WEIGHT_UPDATED = "WEIGHT_UPDATED";
+    public static final String ACTION_ROLLUP = "WEIGHT_ROLLUP";
+
+    // Spools with at least two weight updates on one day of the window
+    private static final String CANDIDATE_QUERY = "SELECT DISTINCT h.spool.id FROM SpoolHistory h"
+        + " WHERE h.action = ?1 AND h.createdAt >= ?2 AND h.createdAt < ?3 AND h.spool.id > ?4"
+        + " GROUP BY h.spool.id, extract(date from h.createdAt) HAVING COUNT(h) > 1"
+        + " ORDER BY h.spool.id";
+
+    private static final String ROWS_QUERY = "SELECT h.id, h.action, h.oldValue, h.newValue, h.createdAt"
+        + " FROM SpoolHistory h WHERE h.spool.id = ?1 AND h.createdAt >= ?2 AND h.createdAt < ?3"
+        + " ORDER BY h.createdAt, h.id";
+
+    // Lower bound of the first sweep after a start
+    private static final LocalDateTime BEGINNING = LocalDate.EPOCH.atStartOfDay();
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "spooltracker.history.compaction.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "spooltracker.history.compaction.keep-raw", defaultValue = "P30D")
+    Duration keepRaw;
+
+    @ConfigProperty(name = "spooltracker.history.compaction.spools-per-batch", defaultValue = "50")
+    int spoolsPerBatch;
+
+    @ConfigProperty(name = "spooltracker.history.compaction.max-batches", defaultValue = "20")
+    int maxBatches;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Sweep position across runs; spools up to it were compacted in an earlier run
+    private long lastSpoolId;
+
+    // Cutoff of the last finished sweep; earlier days were all compacted
+    private LocalDateTime watermark = BEGINNING;
+
+    // Cutoff of the sweep in progress, fixed until it finishes. Cutoffs fall on day
+    // boundaries, so a day is never split between two sweeps.
+    private LocalDateTime sweepCutoff;
+
+    /**
+     * A raw history row as read for compaction.
+     */
+    record Row(Long id, String action, Double oldWeight, Double newWeight, LocalDateTime createdAt) {}
+
+    /**
+     * A run of consecutive same-day weight updates and its summary.
+     */
+    record Rollup(
+        LocalDate date,
+        List<Long> rowIds,
+        Double firstWeightGrams,
+        Double lastWeightGrams,
+        Double minWeightGrams,
+        LocalDateTime lastUpdatedAt
+    ) {}
+
+    @Scheduled(every = "${spooltracker.history.compaction.interval:1h}", delayed = "5m",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledCompaction() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Spool history compaction failed");
+        }
+    }
+
+    /**
+     * Compact up to the configured number of batches.
+     * @return The number of raw rows removed
+     */
+    public synchronized int compact() {
+        if (sweepCutoff == null) {
+            sweepCutoff = LocalDateTime.now().minus(keepRaw).toLocalDate().atStartOfDay();
+        }
+        LocalDateTime from = watermark;
+        LocalDateTime to = sweepCutoff;
+        int removed = 0;
+        int rollups = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> spoolIds = from.isBefore(to) ? candidates(from, to, lastSpoolId) : List.of();
+            if (spoolIds.isEmpty()) {
+                // Sweep finished; the next one starts at its cutoff
+                watermark = to;
+                sweepCutoff = null;
+                lastSpoolId = 0;
+                break;
+            }
+
+            int[] counts = compactBatch(spoolIds, from, to);
+            removed += counts[0];
+            rollups += counts[1];
+            lastSpoolId = spoolIds.get(spoolIds.size() - 1);
+        }
+
+        if (removed > 0) {
+            LOG.infof("Compacted %d weight history rows into %d daily rollups", removed, rollups);
+        }
+        return removed;
+    }
+
+    /**
+     * Up to one batch of spools, after {@code afterSpoolId}, with something to compact
+     * in [{@code from}, {@code to}).
+     */
+    List<Long> candidates(LocalDateTime from, LocalDateTime to, long afterSpoolId) {
+        return QuarkusTransaction.requiringNew().call(() ->
+            em.createQuery(CANDIDATE_QUERY, Long.class)
+                .setParameter(1, ACTION_WEIGHT_UPDATED)
+                .setParameter(2, from)
+                .setParameter(3, to)
+                .setParameter(4, afterSpoolId)
+                .setMaxResults(spoolsPerBatch)
+                .getResultList());
+    }
+
+    /**
+     * Compact the spools' history in [{@code from}, {@code to}) in one transaction.
+     * @return The number of removed rows and of created rollups
+     */
+    int[] compactBatch(List<Long> spoolIds, LocalDateTime from, LocalDateTime to) {
+        return QuarkusTransaction.requiringNew().call(() -> compactSpools(spoolIds, from, to));
+    }
+
+    private int[] compactSpools(List<Long> spoolIds, LocalDateTime from, LocalDateTime to) {
+        int removed = 0;
+        int created = 0;
+        for (Long spoolId : spoolIds) {
+            List<Row> rows = new ArrayList<>();
+            for (Object[] row : em.createQuery(ROWS_QUERY, Object[].class)
+                    .setParameter(1, spoolId)
+                    .setParameter(2, from)
+                    .setParameter(3, to)
+                    .getResultList()) {
+                rows.add(new Row(
+                    (Long) row[0],
+                    (String) row[1],
+                    weightOf((String) row[2]),
+                    weightOf((String) row[3]),
+                    (LocalDateTime) row[4]
+                ));
+            }
+
+            List<Rollup> rollups = buildRollups(rows);
+            if (rollups.isEmpty()) {
+                continue;
+            }
+            Spool spool = em.getReference(Spool.class, spoolId);
+            List<Long> rowIds = new ArrayList<>();
+            for (Rollup rollup : rollups) {
+                rowIds.addAll(rollup.rowIds());
+                em.persist(toEntity(spool, rollup));
+            }
+            removed += em.createQuery("DELETE FROM SpoolHistory h WHERE h.id IN ?1")
+                .setParameter(1, rowIds)
+                .executeUpdate();
+            created += rollups.size();
+        }
+        return new int[] { removed, created };
+    }
+
+    /**
+     * Group rows (ordered by time) into runs of consecutive WEIGHT_UPDATED entries on
+     * the same day. Only runs of two or more rows are worth a rollup.
+     */
+    static List<Rollup> buildRollups(List<Row> rows) {
+        List<Rollup> rollups = new ArrayList<>();
+        List<Row> run = new ArrayList<>();
+        for (Row row : rows) {
+            boolean weightUpdate = ACTION_WEIGHT_UPDATED.equals(row.action());
+            boolean sameDay = !run.isEmpty()
+                && run.get(0).createdAt().toLocalDate().equals(row.createdAt().toLocalDate());
+            if (!weightUpdate || !sameDay) {
+                addRollup(rollups, run);
+                run.clear();
+            }
+            if (weightUpdate) {
+                run.add(row);
+            }
+        }
+        addRollup(rollups, run);
+        return rollups;
+    }
+
+    private static void addRollup(List<Rollup> rollups, List<Row> run) {
+        if (run.size() < 2) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(run.size());
+        Double min = null;
+        for (Row row : run) {
+            ids.add(row.id());
+            Double weight = row.newWeight();
+            if (weight != null && (min == null || weight < min)) {
+                min = weight;
+            }
+        }
+        Row first = run.get(0);
+        Row last = run.get(run.size() - 1);
+        rollups.add(new Rollup(
+            first.createdAt().toLocalDate(),
+            ids,
+            first.oldWeight(),
+            last.newWeight(),
+            min,
+            last.createdAt()
+        ));
+    }
+
+    private SpoolHistory toEntity(Spool spool, Rollup rollup) {
+        SpoolHistory history = new SpoolHistory();
+        history.spool = spool;
+        history.action = ACTION_ROLLUP;
+        history.description = String.format("%d weight updates on %s, from %.2fg to %.2fg",
+            rollup.rowIds().size(), rollup.date(),
+            rollup.firstWeightGrams() != null ? rollup.firstWeightGrams() : 0.0,
+            rollup.lastWeightGrams() != null ? rollup.lastWeightGrams() : 0.0);
+
+        Map<String, Object> oldValue = new LinkedHashMap<>();
+        oldValue.put("currentWeightGrams", rollup.firstWeightGrams());
+        Map<String, Object> newValue = new LinkedHashMap<>();
+        newValue.put("date", rollup.date().toString());
+        newValue.put("count", rollup.rowIds().size());
+        newValue.put("firstWeightGrams", rollup.firstWeightGrams());
+        newValue.put("lastWeightGrams", rollup.lastWeightGrams());
+        newValue.put("minWeightGrams", rollup.minWeightGrams());
+        newValue.put("currentWeightGrams", rollup.lastWeightGrams());
+        try {
+            history.oldValue = objectMapper.writeValueAsString(oldValue);
+            history.newValue = objectMapper.writeValueAsString(newValue);
+        } catch (Exception e) {
+            history.oldValue = String.valueOf(oldValue);
+            history.newValue = String.valueOf(newValue);
+        }
+        // Keep the rollup where the run ended in the time-ordered history
+        history.createdAt = rollup.lastUpdatedAt();
+        return history;
+    }
+
+    // Reads {"currentWeightGrams": x}; older rows may hold a plain number or "null"
+    private Double weightOf(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(value);
+            JsonNode weight = node.isObject() ? node.get("currentWeightGrams") : node;
+            return weight != null && weight.isNumber() ? weight.asDouble() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
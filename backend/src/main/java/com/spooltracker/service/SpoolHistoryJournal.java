@@ -0,0 +1,243 @@
+package com.spooltracker.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolHistory;
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Write-behind journal for spool history entries.
+ * <p>
+ * In {@code sync} mode entries are persisted inside the caller's transaction, as
+ * before. In {@code async} mode (the default) an entry is queued once the caller's
+ * transaction commits, and a background drainer writes queued entries in batches,
+ * so user-facing writes no longer pay for audit inserts or JSON serialization.
+ * The queue is bounded: an entry reserves its place before the caller commits,
+ * and when no place is free it is persisted in the caller's transaction as in
+ * sync mode. Pending entries are flushed on shutdown, and readers can call
+ * {@link #flush()} for read-your-writes.
+ */
+@ApplicationScoped
+public class SpoolHistoryJournal {
+
+    private static final Logger LOG = Logger.getLogger(SpoolHistoryJournal.class);
+
+    public static final String MODE_SYNC = "sync";
+    public static final String MODE_ASYNC = "async";
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "spooltracker.history.mode", defaultValue = MODE_ASYNC)
+    String mode;
+
+    @ConfigProperty(name = "spooltracker.history.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "spooltracker.history.batch-size", defaultValue = "200")
+    int batchSize;
+
+    @ConfigProperty(name = "spooltracker.history.flush-interval", defaultValue = "PT1S")
+    Duration flushInterval;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Serializes batch writes so entries reach the database in the order they were queued
+    private final Object drainLock = new Object();
+
+    private BlockingQueue<Event> queue;
+    // Free places in the queue, taken when an entry is appended and given back when it is dequeued
+    private Semaphore slots;
+    private volatile Thread drainer;
+    private volatile boolean running;
+
+    /**
+     * A history entry captured at write time; values are serialized to JSON when written.
+     */
+    public record Event(
+        Long spoolId,
+        String action,
+        String description,
+        Map<String, Object> oldValue,
+        Map<String, Object> newValue,
+        LocalDateTime createdAt
+    ) {}
+
+    void onStart(@Observes StartupEvent event) {
+        if (!isAsync()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        slots = new Semaphore(queueCapacity);
+        running = true;
+        drainer = Thread.ofPlatform().name("spool-history-journal").daemon().start(this::drainLoop);
+        LOG.infof("Spool history journal started in async mode (capacity %d, batch size %d)", queueCapacity, batchSize);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (drainer == null) {
+            return;
+        }
+        running = false;
+        drainer.interrupt();
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public boolean isAsync() {
+        return MODE_ASYNC.equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Record a history entry. Must be called inside the transaction that made the change.
+     */
+    public void append(Event event) {
+        if (queue == null) {
+            em.persist(toEntity(event));
+            return;
+        }
+        if (!slots.tryAcquire()) {
+            // Queue full: apply backpressure by writing in the caller's transaction
+            em.persist(toEntity(event));
+            return;
+        }
+        // Entries of rolled-back changes are never queued
+        TransactionHooks.afterCompletion(committed -> {
+            if (committed) {
+                enqueue(event);
+            } else {
+                slots.release();
+            }
+        });
+    }
+
+    /**
+     * Write every queued entry now, on the calling thread.
+     */
+    public void flush() {
+        if (queue == null) {
+            return;
+        }
+        synchronized (drainLock) {
+            List<Event> batch = new ArrayList<>(batchSize);
+            while (dequeue(batch) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void enqueue(Event event) {
+        // Always succeeds: the entry reserved its place when it was appended
+        queue.add(event);
+        Thread thread = drainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Move up to one batch of entries from the queue into {@code batch}.
+     * Must be called holding {@code drainLock}.
+     */
+    private int dequeue(List<Event> batch) {
+        int taken = queue.drainTo(batch, batchSize);
+        slots.release(taken);
+        return taken;
+    }
+
+    private void drainLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // Entries leave the queue only under the lock, so a concurrent flush()
+                // never overtakes a batch the drainer has already taken
+                synchronized (drainLock) {
+                    if (dequeue(batch) > 0) {
+                        write(batch);
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "Spool history journal drainer failed");
+            }
+            boolean idle = batch.isEmpty();
+            batch.clear();
+            if (idle) {
+                // Woken early by enqueue(); a wake-up before parking is not lost
+                LockSupport.parkNanos(this, flushInterval.toNanos());
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<Event> batch) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (Event event : batch) {
+                    em.persist(toEntity(event));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Isolate the failing entries so one bad row does not drop the whole batch
+            LOG.warnf(e, "Failed to write %d spool history entries as a batch, retrying individually", batch.size());
+            for (Event event : batch) {
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> em.persist(toEntity(event)));
+                } catch (RuntimeException single) {
+                    LOG.warnf("Dropping %s history entry for spool %d: %s",
+                        event.action(), event.spoolId(), single.getMessage());
+                }
+            }
+        }
+    }
+
+    private SpoolHistory toEntity(Event event) {
+        SpoolHistory history = new SpoolHistory();
+        history.spool = em.getReference(Spool.class, event.spoolId());
+        history.action = event.action();
+        history.description = event.description();
+        history.oldValue = toJson(event.oldValue());
+        history.newValue = toJson(event.newValue());
+        history.createdAt = event.createdAt();
+        return history;
+    }
+
+    private String toJson(Map<String, Object> values) {
+        if (values == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (Exception e) {
+            return String.valueOf(values);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.spooltracker.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Optional monthly RANGE partitioning of {@code spool_history} on MariaDB.
+ * <p>
+ * When enabled, the table is converted on startup (the spool foreign key is dropped
+ * and the primary key extended with {@code created_at}, as MariaDB requires) and a
+ * daily maintenance run keeps partitions ahead of the current month. Partitions older
+ * than the retention are streamed to gzip-compressed JSON-lines files in the archive
+ * directory and then dropped, which removes a month of history without row deletes.
+ */
+@ApplicationScoped
+public class SpoolHistoryPartitionService {
+
+    private static final Logger LOG = Logger.getLogger(SpoolHistoryPartitionService.class);
+
+    static final String TABLE = "spool_history";
+    static final String SPOOL_FOREIGN_KEY = "fk_spool_history_spool";
+    static final String MAX_PARTITION = "pmax";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String ARCHIVE_QUERY = "SELECT id, spool_id, action, description, old_value, new_value, created_at"
+        + " FROM " + TABLE + " PARTITION (%s) ORDER BY id";
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "spooltracker.history.partitioning.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "spooltracker.history.partitioning.months-ahead", defaultValue = "3")
+    int monthsAhead;
+
+    // Months of history kept in the table; 0 keeps everything
+    @ConfigProperty(name = "spooltracker.history.partitioning.retention-months", defaultValue = "0")
+    int retentionMonths;
+
+    @ConfigProperty(name = "spooltracker.history.partitioning.archive-dir", defaultValue = "history-archive")
+    String archiveDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            try {
+                ensureForeignKey();
+            } catch (Exception e) {
+                LOG.errorf(e, "Failed to add the spool foreign key of %s", TABLE);
+            }
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to set up spool history partitions");
+        }
+    }
+
+    @Scheduled(cron = "${spooltracker.history.partitioning.maintenance-cron:0 15 3 * * ?}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledMaintenance() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            LOG.errorf(e, "Spool history partition maintenance failed");
+        }
+    }
+
+    /**
+     * Partition the table if needed, add upcoming months and archive expired ones.
+     */
+    public synchronized void maintain() throws IOException {
+        YearMonth current = YearMonth.now();
+        List<YearMonth> existing = existingPartitions();
+        if (existing == null) {
+            partitionTable(current);
+            existing = existingPartitions();
+        }
+
+        List<YearMonth> missing = missingPartitions(existing, current.plusMonths(monthsAhead));
+        if (!missing.isEmpty()) {
+            ddl("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                + partitionDefinitions(missing) + ")");
+            LOG.infof("Added %d spool history partitions", missing.size());
+        }
+
+        if (retentionMonths > 0) {
+            for (YearMonth month : expiredPartitions(existing, current.minusMonths(retentionMonths))) {
+                archive(month);
+            }
+        }
+    }
+
+    /**
+     * Add the spool foreign key to an unpartitioned table that lacks it. The mapping
+     * leaves the key out of schema update, since MariaDB rejects it on partitioned tables.
+     */
+    void ensureForeignKey() {
+        if (existingPartitions() != null || !foreignKeys().isEmpty()) {
+            return;
+        }
+        // History written while the table had no key may point at deleted spools
+        int orphans = QuarkusTransaction.requiringNew().call(() -> em.createNativeQuery(
+            "DELETE h FROM " + TABLE + " h LEFT JOIN spool s ON s.id = h.spool_id WHERE s.id IS NULL")
+            .executeUpdate());
+        if (orphans > 0) {
+            LOG.warnf("Deleted %d spool history entries of deleted spools", orphans);
+        }
+        ddl("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + SPOOL_FOREIGN_KEY
+            + " FOREIGN KEY (spool_id) REFERENCES spool (id)");
+        LOG.infof("Added the spool foreign key of %s", TABLE);
+    }
+
+    private List<Object> foreignKeys() {
+        @SuppressWarnings("unchecked")
+        List<Object> names = QuarkusTransaction.requiringNew().call(() -> em.createNativeQuery(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?1 AND CONSTRAINT_TYPE = 'FOREIGN KEY'")
+            .setParameter(1, TABLE)
+            .getResultList());
+        return names;
+    }
+
+    /**
+     * Months with a partition, oldest first, or null if the table is not partitioned.
+     */
+    private List<YearMonth> existingPartitions() {
+        @SuppressWarnings("unchecked")
+        List<Object> names = QuarkusTransaction.requiringNew().call(() -> em.createNativeQuery(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?1"
+                + " ORDER BY PARTITION_ORDINAL_POSITION")
+            .setParameter(1, TABLE)
+            .getResultList());
+        if (names.isEmpty() || names.get(0) == null) {
+            return null;
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (Object name : names) {
+            if (!MAX_PARTITION.equals(name)) {
+                months.add(YearMonth.parse((String) name, PARTITION_NAME));
+            }
+        }
+        return months;
+    }
+
+    private void partitionTable(YearMonth current) {
+        LOG.infof("Converting %s to monthly partitions", TABLE);
+
+        // MariaDB does not allow foreign keys on partitioned tables. Only this conversion
+        // drops the spool foreign key; unpartitioned deployments keep it. Spool deletes
+        // remove history explicitly, so nothing relies on it afterwards.
+        for (Object foreignKey : foreignKeys()) {
+            ddl("ALTER TABLE " + TABLE + " DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+
+        // Every unique key, including the primary key, must contain the partitioning column
+        ddl("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at)");
+
+        Object oldest = QuarkusTransaction.requiringNew().call(() -> em.createNativeQuery(
+            "SELECT MIN(created_at) FROM " + TABLE).getSingleResult());
+        YearMonth first = oldest != null ? YearMonth.from(toLocalDateTime(oldest)) : current;
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        ddl("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(created_at) (" + partitionDefinitions(months) + ")");
+    }
+
+    /**
+     * Stream a month to a compressed JSON-lines file, then drop its partition.
+     * The file is written under a temporary name first, so a crash never leaves a
+     * truncated archive next to a dropped partition.
+     */
+    private void archive(YearMonth month) throws IOException {
+        String partition = month.format(PARTITION_NAME);
+        Path directory = Path.of(archiveDir);
+        Files.createDirectories(directory);
+        Path target = directory.resolve(TABLE + "-" + month + ".jsonl.gz");
+        Path temp = Files.createTempFile(directory, TABLE + "-" + month, ".tmp");
+
+        long rows = QuarkusTransaction.requiringNew().call(() -> {
+            long count = 0;
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8));
+                 Stream<?> stream = em.createNativeQuery(String.format(ARCHIVE_QUERY, partition)).getResultStream()) {
+                Iterator<?> results = stream.iterator();
+                while (results.hasNext()) {
+                    writer.write(objectMapper.writeValueAsString(toArchiveRecord((Object[]) results.next())));
+                    writer.newLine();
+                    count++;
+                }
+            }
+            return count;
+        });
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ddl("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+        LOG.infof("Archived %d spool history rows for %s to %s", rows, month, target);
+    }
+
+    private Map<String, Object> toArchiveRecord(Object[] row) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", row[0]);
+        record.put("spoolId", row[1]);
+        record.put("action", row[2]);
+        record.put("description", row[3]);
+        record.put("oldValue", row[4]);
+        record.put("newValue", row[5]);
+        record.put("createdAt", row[6] != null ? toLocalDateTime(row[6]).toString() : null);
+        return record;
+    }
+
+    private void ddl(String sql) {
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(sql).executeUpdate());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * Partition definitions for the given months followed by the catch-all partition.
+     */
+    static String partitionDefinitions(List<YearMonth> months) {
+        StringBuilder sql = new StringBuilder();
+        for (YearMonth month : months) {
+            sql.append("PARTITION ").append(month.format(PARTITION_NAME))
+                .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        return sql.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE)").toString();
+    }
+
+    /**
+     * Months after the newest existing partition, up to and including {@code until}.
+     */
+    static List<YearMonth> missingPartitions(List<YearMonth> existing, YearMonth until) {
+        List<YearMonth> missing = new ArrayList<>();
+        YearMonth next = existing.isEmpty() ? YearMonth.now() : existing.get(existing.size() - 1).plusMonths(1);
+        for (YearMonth month = next; !month.isAfter(until); month = month.plusMonths(1)) {
+            missing.add(month);
+        }
+        return missing;
+    }
+
+    /**
+     * Existing months strictly before {@code oldestKept}, oldest first.
+     */
+    static List<YearMonth> expiredPartitions(List<YearMonth> existing, YearMonth oldestKept) {
+        List<YearMonth> expired = new ArrayList<>();
+        for (YearMonth month : existing) {
+            if (month.isBefore(oldestKept)) {
+                expired.add(month);
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,145 @@
+package com.spooltracker.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.spooltracker.constants.AppConstants;
+import com.spooltracker.dto.PagedResponse;
+import com.spooltracker.dto.SpoolHistoryDTO;
+import com.spooltracker.util.Cursor;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Read side of spool history: filtered, newest-first queries projected straight into DTOs.
+ * Rows are ordered by (createdAt, id) descending, which the (spool_id, created_at) and
+ * created_at indexes serve without a filesort, and pages are fetched with a seek
+ * predicate on that pair instead of an OFFSET.
+ */
+@ApplicationScoped
+public class SpoolHistoryQueryService {
+
+    private static final String SELECT_CLAUSE = "SELECT new com.spooltracker.dto.SpoolHistoryDTO("
+        + "h.id, h.spool.id, h.action, h.description, h.oldValue, h.newValue, h.createdAt)"
+        + " FROM SpoolHistory h";
+
+    private static final String ORDER_CLAUSE = " ORDER BY h.createdAt DESC, h.id DESC";
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Filters for a history query; null fields do not filter.
+     */
+    public record Filter(
+        Long spoolId,
+        Set<String> actions,
+        LocalDateTime from,  // inclusive
+        LocalDateTime to     // exclusive
+    ) {
+        /**
+         * Build a filter from query parameters.
+         * @param actions Comma-separated action names, e.g. "WEIGHT_UPDATED,MARKED_EMPTY"
+         * @param from ISO date or date-time, inclusive
+         * @param to ISO date or date-time, exclusive
+         * @throws IllegalArgumentException if a date cannot be parsed
+         */
+        public static Filter of(Long spoolId, String actions, String from, String to) {
+            Set<String> actionSet = null;
+            if (actions != null && !actions.isBlank()) {
+                actionSet = new LinkedHashSet<>();
+                for (String action : actions.split(",")) {
+                    if (!action.isBlank()) {
+                        actionSet.add(action.trim().toUpperCase());
+                    }
+                }
+            }
+            return new Filter(spoolId, actionSet, parseTime(from, "from"), parseTime(to, "to"));
+        }
+
+        private static LocalDateTime parseTime(String value, String name) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return value.contains("T") ? LocalDateTime.parse(value.trim()) : LocalDate.parse(value.trim()).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid '" + name + "' date: " + value);
+            }
+        }
+    }
+
+    /**
+     * Fetch one keyset page of matching entries, newest first.
+     * @param cursor The nextCursor of the previous page, or null/blank for the first page
+     */
+    public PagedResponse<SpoolHistoryDTO> page(Filter filter, String cursor, int pageSize) {
+        Cursor.Position after = Cursor.decodePosition(cursor);
+        int limit = pageSize > 0 ? Math.min(pageSize, AppConstants.MAX_PAGE_SIZE) : AppConstants.DEFAULT_PAGE_SIZE;
+
+        // Fetch one extra row to know whether another page exists
+        List<SpoolHistoryDTO> rows = list(filter, after, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<SpoolHistoryDTO> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            SpoolHistoryDTO last = pageRows.get(pageRows.size() - 1);
+            nextCursor = Cursor.encode(last.createdAt(), last.id());
+        }
+        return PagedResponse.ofCursor(pageRows, limit, nextCursor, after != null, null);
+    }
+
+    /**
+     * List matching entries, newest first.
+     * @param after Position of the last entry of the previous page, or null for the first page
+     * @param maxResults Maximum number of entries, or 0 for no limit
+     */
+    public List<SpoolHistoryDTO> list(Filter filter, Cursor.Position after, int maxResults) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        if (filter.spoolId() != null) {
+            params.add(filter.spoolId());
+            conditions.add("h.spool.id = ?" + params.size());
+        }
+        if (filter.actions() != null && !filter.actions().isEmpty()) {
+            params.add(filter.actions());
+            conditions.add("h.action IN ?" + params.size());
+        }
+        if (filter.from() != null) {
+            params.add(filter.from());
+            conditions.add("h.createdAt >= ?" + params.size());
+        }
+        if (filter.to() != null) {
+            params.add(filter.to());
+            conditions.add("h.createdAt < ?" + params.size());
+        }
+        if (after != null) {
+            params.add(after.timestamp());
+            int timestampParam = params.size();
+            params.add(after.id());
+            conditions.add("(h.createdAt < ?" + timestampParam
+                + " OR (h.createdAt = ?" + timestampParam + " AND h.id < ?" + params.size() + "))");
+        }
+
+        String jpql = SELECT_CLAUSE
+            + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+            + ORDER_CLAUSE;
+        TypedQuery<SpoolHistoryDTO> query = em.createQuery(jpql, SpoolHistoryDTO.class);
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        if (maxResults > 0) {
+            query.setMaxResults(maxResults);
+        }
+        return query.getResultList();
+    }
+}
@@ -1,93 +1,67 @@
 package com.spooltracker.service;
 
 import com.spooltracker.entity.Spool;
-import com.spooltracker.entity.SpoolHistory;
+import com.spooltracker.service.SpoolHistoryJournal.Event;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @ApplicationScoped
 public class SpoolHistoryService {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Inject
+    SpoolHistoryJournal journal;
 
     @Transactional
     public void recordLocationChange(Spool spool, String oldLocation, String newLocation) {
-        SpoolHistory history = new SpoolHistory();
-        history.spool = spool;
-        history.action = "LOCATION_CHANGED";
-        history.description = String.format("Location changed from %s to %s", oldLocation, newLocation);
-        try {
-            history.oldValue = objectMapper.writeValueAsString(Map.of("location", oldLocation));
-            history.newValue = objectMapper.writeValueAsString(Map.of("location", newLocation));
-        } catch (Exception e) {
-            history.oldValue = oldLocation;
-            history.newValue = newLocation;
-        }
-        history.persist();
+        record(spool, "LOCATION_CHANGED",
+            String.format("Location changed from %s to %s", oldLocation, newLocation),
+            values("location", oldLocation),
+            values("location", newLocation));
     }
 
     @Transactional
     public void recordWeightUpdate(Spool spool, Double oldWeight, Double newWeight) {
-        SpoolHistory history = new SpoolHistory();
-        history.spool = spool;
-        history.action = "WEIGHT_UPDATED";
-        history.description = String.format("Weight updated from %.2fg to %.2fg", 
-            oldWeight != null ? oldWeight : 0.0, 
-            newWeight != null ? newWeight : 0.0);
-        try {
-            history.oldValue = objectMapper.writeValueAsString(Map.of("currentWeightGrams", oldWeight));
-            history.newValue = objectMapper.writeValueAsString(Map.of("currentWeightGrams", newWeight));
-        } catch (Exception e) {
-            history.oldValue = String.valueOf(oldWeight);
-            history.newValue = String.valueOf(newWeight);
-        }
-        history.persist();
+        record(spool, "WEIGHT_UPDATED",
+            String.format("Weight updated from %.2fg to %.2fg", 
+                oldWeight != null ? oldWeight : 0.0, 
+                newWeight != null ? newWeight : 0.0),
+            values("currentWeightGrams", oldWeight),
+            values("currentWeightGrams", newWeight));
     }
 
     @Transactional
     public void recordMarkedEmpty(Spool spool) {
-        SpoolHistory history = new SpoolHistory();
-        history.spool = spool;
-        history.action = "MARKED_EMPTY";
-        history.description = "Spool marked as empty";
-        history.newValue = "{\"isEmpty\": true}";
-        history.persist();
+        record(spool, "MARKED_EMPTY", "Spool marked as empty", null, values("isEmpty", true));
     }
 
     @Transactional
     public void recordSpoolUpdate(Spool spool, String field, Object oldValue, Object newValue) {
-        SpoolHistory history = new SpoolHistory();
-        history.spool = spool;
-        history.action = "FIELD_UPDATED";
-        history.description = String.format("%s updated", field);
-        try {
-            history.oldValue = objectMapper.writeValueAsString(Map.of(field, oldValue));
-            history.newValue = objectMapper.writeValueAsString(Map.of(field, newValue));
-        } catch (Exception e) {
-            history.oldValue = String.valueOf(oldValue);
-            history.newValue = String.valueOf(newValue);
-        }
-        history.persist();
+        record(spool, "FIELD_UPDATED", String.format("%s updated", field),
+            values(field, oldValue),
+            values(field, newValue));
     }
 
     @Transactional
     public void recordSpoolCreated(Spool spool) {
-        SpoolHistory history = new SpoolHistory();
-        history.spool = spool;
-        history.action = "SPOOL_CREATED";
-        history.description = "Spool created";
-        try {
-            history.newValue = objectMapper.writeValueAsString(Map.of(
-                "uid", spool.uid,
-                "color", spool.color != null ? spool.color.name : null,
-                "filamentType", spool.filamentType != null ? spool.filamentType.name : null
-            ));
-        } catch (Exception e) {
-            history.newValue = "Spool created";
-        }
-        history.persist();
+        Map<String, Object> newValue = values("uid", spool.uid);
+        newValue.put("color", spool.color != null ? spool.color.name : null);
+        newValue.put("filamentType", spool.filamentType != null ? spool.filamentType.name : null);
+        record(spool, "SPOOL_CREATED", "Spool created", null, newValue);
+    }
+
+    private void record(Spool spool, String action, String description,
+                        Map<String, Object> oldValue, Map<String, Object> newValue) {
+        journal.append(new Event(spool.id, action, description, oldValue, newValue, LocalDateTime.now()));
     }
-}
 
+    // Unlike Map.of, allows null values
+    private static Map<String, Object> values(String key, Object value) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(key, value);
+        return values;
+    }
+}
@@ -0,0 +1,437 @@
+package com.spooltracker.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.spooltracker.entity.FilamentColor;
+import com.spooltracker.entity.FilamentType;
+import com.spooltracker.entity.Location;
+import com.spooltracker.entity.Manufacturer;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolLocation;
+import com.spooltracker.util.Sanitizer;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * CSV spool import, in the format written by the CSV export.
+ * <p>
+ * Manufacturers, filament types, colors and locations are loaded once per import and
+ * resolved from memory. Valid rows are collected into chunks; for each chunk the
+ * existing UIDs are checked with one {@code IN} query and the new spools are inserted
+ * with JDBC batching in their own transaction, so a large file costs a handful of
+ * round trips per chunk instead of several per row, and a failure only loses the
+ * chunk it happened in.
+ */
+@ApplicationScoped
+public class SpoolImportService {
+
+    private static final Logger LOG = Logger.getLogger(SpoolImportService.class);
+
+    private static final int MAX_UID_LENGTH = 100;
+    private static final int MAX_STRING_LENGTH = 500;
+    private static final double MAX_WEIGHT = 100000.0; // 100kg max
+    private static final double MIN_WEIGHT = 0.0;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    LocationOccupancyService occupancyService;
+
+    @ConfigProperty(name = "spooltracker.import.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    /**
+     * Outcome of an import.
+     */
+    public record Result(int imported, int skipped, List<String> errors) {}
+
+    /**
+     * A validated row with its references resolved, ready to insert.
+     */
+    record PendingSpool(
+        int lineNumber,
+        String uid,
+        Manufacturer manufacturer,
+        FilamentType filamentType,
+        FilamentColor color,
+        String colorNumber,
+        Double initialWeight,
+        Double currentWeight,
+        SpoolLocation legacyLocation,
+        Location storageLocation
+    ) {}
+
+    /**
+     * Reference data by name. Names (and UIDs) are matched case-insensitively, like
+     * the database's default collation did for the per-row lookups; the first entity
+     * (by id) wins for duplicate names.
+     */
+    static final class Lookups {
+        final Map<String, Manufacturer> manufacturers = new HashMap<>();
+        final Map<String, FilamentType> filamentTypes = new HashMap<>();
+        final Map<String, FilamentColor> colors = new HashMap<>();
+        final Map<String, Location> locations = new HashMap<>();
+
+        static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Running totals of an import.
+     */
+    static final class Tally {
+        int imported;
+        int skipped;
+        final List<String> errors = new ArrayList<>();
+
+        void error(String message) {
+            errors.add(message);
+            skipped++;
+        }
+
+        Result toResult() {
+            return new Result(imported, skipped, errors);
+        }
+    }
+
+    /**
+     * Receives progress of a resumable import.
+     */
+    public interface Checkpoint {
+        /**
+         * Called inside the transaction that commits the rows up to {@code line}, so the
+         * recorded position never runs ahead of or behind the committed rows.
+         */
+        void committed(int line, Result totals);
+
+        /**
+         * Checked after every chunk; returning true ends the import early at that checkpoint.
+         */
+        default boolean stopRequested() {
+            return false;
+        }
+    }
+
+    /**
+     * Import every row of the reader; the first line is treated as the header.
+     * Chunks are committed as they fill up, so rows before a failure stay imported.
+     */
+    public Result importCsv(BufferedReader reader) throws IOException {
+        return importCsv(reader, 1, new Result(0, 0, List.of()), null);
+    }
+
+    /**
+     * Import the rows of the reader after a given line, continuing an earlier run.
+     * @param resumeAfterLine Lines up to and including this one are skipped; 1 skips just the header
+     * @param totals Totals of the earlier run, carried into the result
+     * @param checkpoint Notified of every committed position, or null
+     */
+    public Result importCsv(BufferedReader reader, int resumeAfterLine, Result totals, Checkpoint checkpoint)
+            throws IOException {
+        Lookups lookups = QuarkusTransaction.requiringNew().call(this::loadLookups);
+        Set<String> seenUids = new HashSet<>();
+        Tally tally = new Tally();
+        tally.imported = totals.imported();
+        tally.skipped = totals.skipped();
+        tally.errors.addAll(totals.errors());
+        List<PendingSpool> chunk = new ArrayList<>(chunkSize);
+
+        String line = reader.readLine(); // Skip header
+        int lineNumber = 1;
+        int committedLine = resumeAfterLine;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber <= resumeAfterLine || line.trim().isEmpty()) {
+                continue;
+            }
+            PendingSpool pending = parseRow(lineNumber, line, lookups, tally);
+            if (pending == null) {
+                continue;
+            }
+            // A UID repeated within the file is skipped like one that already exists
+            if (!seenUids.add(Lookups.key(pending.uid()))) {
+                tally.skipped++;
+                continue;
+            }
+            chunk.add(pending);
+            if (chunk.size() >= chunkSize) {
+                commitChunk(chunk, tally, lineNumber, checkpoint);
+                chunk.clear();
+                committedLine = lineNumber;
+                if (checkpoint != null && checkpoint.stopRequested()) {
+                    return tally.toResult();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            commitChunk(chunk, tally, lineNumber, checkpoint);
+        } else if (checkpoint != null && committedLine < lineNumber) {
+            // Trailing lines were all rejected or blank; record that they were read
+            int lastLine = lineNumber;
+            QuarkusTransaction.requiringNew().run(() -> checkpoint.committed(lastLine, tally.toResult()));
+        }
+        return tally.toResult();
+    }
+
+    Lookups loadLookups() {
+        Lookups lookups = new Lookups();
+        for (Manufacturer manufacturer : em.createQuery("FROM Manufacturer ORDER BY id", Manufacturer.class).getResultList()) {
+            lookups.manufacturers.putIfAbsent(Lookups.key(manufacturer.name), manufacturer);
+        }
+        for (FilamentType type : em.createQuery(
+                "SELECT t FROM FilamentType t LEFT JOIN FETCH t.material ORDER BY t.id", FilamentType.class).getResultList()) {
+            lookups.filamentTypes.putIfAbsent(Lookups.key(type.name), type);
+        }
+        for (FilamentColor color : em.createQuery("FROM FilamentColor ORDER BY id", FilamentColor.class).getResultList()) {
+            lookups.colors.putIfAbsent(Lookups.key(color.name), color);
+        }
+        for (Location location : em.createQuery("FROM Location ORDER BY id", Location.class).getResultList()) {
+            lookups.locations.putIfAbsent(Lookups.key(location.name), location);
+        }
+        return lookups;
+    }
+
+    /**
+     * Insert a chunk in one transaction, skipping UIDs that already exist.
+     */
+    private void commitChunk(List<PendingSpool> chunk, Tally tally, int line, Checkpoint checkpoint) {
+        try {
+            int[] counts = QuarkusTransaction.requiringNew().call(() -> {
+                int[] inserted = insert(chunk);
+                if (checkpoint != null) {
+                    checkpoint.committed(line, new Result(
+                        tally.imported + inserted[0], tally.skipped + inserted[1], tally.errors));
+                }
+                return inserted;
+            });
+            tally.imported += counts[0];
+            tally.skipped += counts[1];
+        } catch (RuntimeException e) {
+            // Isolate the failing rows so the rest of the chunk is still imported
+            LOG.warnf(e, "Failed to import a chunk of %d spools, retrying row by row", chunk.size());
+            for (PendingSpool pending : chunk) {
+                try {
+                    int[] counts = QuarkusTransaction.requiringNew().call(() -> insert(List.of(pending)));
+                    tally.imported += counts[0];
+                    tally.skipped += counts[1];
+                } catch (RuntimeException single) {
+                    LOG.errorf(single, "Error processing line %d", pending.lineNumber());
+                    tally.error(String.format("Line %d: %s", pending.lineNumber(), single.getMessage()));
+                }
+            }
+            if (checkpoint != null) {
+                // Rows already inserted are skipped as existing if this position is lost
+                QuarkusTransaction.requiringNew().run(() -> checkpoint.committed(line, tally.toResult()));
+            }
+        }
+    }
+
+    /**
+     * @return The number of inserted and of skipped (already existing) spools
+     */
+    private int[] insert(List<PendingSpool> chunk) {
+        List<String> uids = new ArrayList<>(chunk.size());
+        for (PendingSpool pending : chunk) {
+            uids.add(pending.uid());
+        }
+        Set<String> existing = new HashSet<>();
+        for (String uid : em.createQuery("SELECT s.uid FROM Spool s WHERE s.uid IN ?1", String.class)
+                .setParameter(1, uids)
+                .getResultList()) {
+            existing.add(Lookups.key(uid));
+        }
+
+        List<Spool> inserted = new ArrayList<>(chunk.size());
+        for (PendingSpool pending : chunk) {
+            if (existing.contains(Lookups.key(pending.uid()))) {
+                continue;
+            }
+            Spool spool = toSpool(pending);
+            em.persist(spool);
+            inserted.add(spool);
+        }
+        // Inserts go out in JDBC batches at flush
+        em.flush();
+        occupancyService.added(inserted);
+        return new int[] { inserted.size(), chunk.size() - inserted.size() };
+    }
+
+    private static Spool toSpool(PendingSpool pending) {
+        Spool spool = new Spool();
+        spool.uid = pending.uid();
+        spool.filamentType = pending.filamentType();
+        spool.color = pending.color();
+        spool.manufacturer = pending.manufacturer();
+        spool.colorNumber = pending.colorNumber();
+        spool.initialWeightGrams = pending.initialWeight();
+        spool.currentWeightGrams = pending.currentWeight() != null ? pending.currentWeight() : pending.initialWeight();
+        spool.legacyLocation = pending.legacyLocation();
+        spool.storageLocation = pending.storageLocation();
+        return spool;
+    }
+
+    /**
+     * Validate a data line and resolve its references.
+     * @return The spool to insert, or null if the line was rejected (the error is recorded in the tally)
+     */
+    static PendingSpool parseRow(int lineNumber, String line, Lookups lookups, Tally tally) {
+        try {
+            String[] fields = parseCsvLine(line);
+            if (fields.length < 6) {
+                tally.error(String.format("Line %d: Insufficient fields (expected at least 6, got %d)", lineNumber, fields.length));
+                return null;
+            }
+
+            // Parse and validate CSV fields (assuming same format as export)
+            String uid = fields[0].trim();
+            String colorName = fields[1].trim();
+            // materialName is parsed but not used directly (filament type already has material)
+            String manufacturerName = fields[3].trim();
+            String filamentTypeName = fields[4].trim();
+            String locationStr = fields[5].trim();
+            String colorNumber = fields.length > 6 ? fields[6].trim() : null;
+
+            // Validate UID
+            if (uid.isEmpty()) {
+                tally.error(String.format("Line %d: UID is required", lineNumber));
+                return null;
+            }
+            if (uid.length() > MAX_UID_LENGTH) {
+                tally.error(String.format("Line %d: UID exceeds maximum length of %d characters", lineNumber, MAX_UID_LENGTH));
+                return null;
+            }
+
+            // Sanitize string fields
+            uid = Sanitizer.sanitize(uid);
+            colorName = Sanitizer.sanitize(colorName);
+            manufacturerName = Sanitizer.sanitize(manufacturerName);
+            filamentTypeName = Sanitizer.sanitize(filamentTypeName);
+            locationStr = Sanitizer.sanitize(locationStr);
+            if (colorNumber != null && !colorNumber.isEmpty()) {
+                colorNumber = Sanitizer.sanitize(colorNumber);
+                if (colorNumber.length() > 50) {
+                    tally.error(String.format("Line %d: Color number exceeds maximum length of 50 characters", lineNumber));
+                    return null;
+                }
+            }
+
+            // Validate string lengths
+            if (colorName.length() > MAX_STRING_LENGTH || manufacturerName.length() > MAX_STRING_LENGTH
+                || filamentTypeName.length() > MAX_STRING_LENGTH || locationStr.length() > MAX_STRING_LENGTH) {
+                tally.error(String.format("Line %d: One or more fields exceed maximum length of %d characters", lineNumber, MAX_STRING_LENGTH));
+                return null;
+            }
+
+            // Parse and validate weights
+            Double initialWeight = null;
+            Double currentWeight = null;
+            if (fields.length > 7 && !fields[7].trim().isEmpty()) {
+                try {
+                    initialWeight = Double.parseDouble(fields[7].trim());
+                    if (initialWeight < MIN_WEIGHT || initialWeight > MAX_WEIGHT) {
+                        tally.error(String.format("Line %d: Initial weight must be between %.1f and %.1f grams", lineNumber, MIN_WEIGHT, MAX_WEIGHT));
+                        return null;
+                    }
+                } catch (NumberFormatException e) {
+                    tally.error(String.format("Line %d: Invalid initial weight format: %s", lineNumber, fields[7].trim()));
+                    return null;
+                }
+            }
+            if (fields.length > 8 && !fields[8].trim().isEmpty()) {
+                try {
+                    currentWeight = Double.parseDouble(fields[8].trim());
+                    if (currentWeight < MIN_WEIGHT || currentWeight > MAX_WEIGHT) {
+                        tally.error(String.format("Line %d: Current weight must be between %.1f and %.1f grams", lineNumber, MIN_WEIGHT, MAX_WEIGHT));
+                        return null;
+                    }
+                    // Validate current weight doesn't exceed initial weight
+                    if (initialWeight != null && currentWeight > initialWeight) {
+                        tally.error(String.format("Line %d: Current weight (%.1f) cannot exceed initial weight (%.1f)", lineNumber, currentWeight, initialWeight));
+                        return null;
+                    }
+                } catch (NumberFormatException e) {
+                    tally.error(String.format("Line %d: Invalid current weight format: %s", lineNumber, fields[8].trim()));
+                    return null;
+                }
+            }
+
+            Manufacturer manufacturer = lookups.manufacturers.get(Lookups.key(manufacturerName));
+            if (manufacturer == null) {
+                tally.error(String.format("Line %d: Manufacturer '%s' not found", lineNumber, manufacturerName));
+                return null;
+            }
+
+            FilamentType filamentType = lookups.filamentTypes.get(Lookups.key(filamentTypeName));
+            if (filamentType == null) {
+                tally.error(String.format("Line %d: Filament type '%s' not found", lineNumber, filamentTypeName));
+                return null;
+            }
+
+            FilamentColor color = lookups.colors.get(Lookups.key(colorName));
+            if (color == null) {
+                tally.error(String.format("Line %d: Color '%s' not found", lineNumber, colorName));
+                return null;
+            }
+
+            // Parse location: a legacy location name, or else the name of a storage location
+            SpoolLocation legacyLocation = null;
+            Location storageLocation = null;
+            if (!locationStr.isEmpty()) {
+                try {
+                    legacyLocation = SpoolLocation.valueOf(locationStr.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    storageLocation = lookups.locations.get(Lookups.key(locationStr));
+                }
+            }
+
+            return new PendingSpool(lineNumber, uid, manufacturer, filamentType, color, colorNumber,
+                initialWeight, currentWeight, legacyLocation, storageLocation);
+
+        } catch (NumberFormatException e) {
+            tally.error(String.format("Line %d: Number format error - %s", lineNumber, e.getMessage()));
+            return null;
+        } catch (IllegalArgumentException e) {
+            tally.error(String.format("Line %d: Invalid value - %s", lineNumber, e.getMessage()));
+            return null;
+        } catch (Exception e) {
+            LOG.errorf(e, "Error processing line %d", lineNumber);
+            tally.error(String.format("Line %d: %s", lineNumber, e.getMessage()));
+            return null;
+        }
+    }
+
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        boolean inQuotes = false;
+        StringBuilder currentField = new StringBuilder();
+
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                fields.add(currentField.toString());
+                currentField = new StringBuilder();
+            } else {
+                currentField.append(c);
+            }
+        }
+        fields.add(currentField.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,435 @@
+package com.spooltracker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jboss.logging.Logger;
+
+import com.spooltracker.dto.FilamentMatchDTO.SpoolMatchDTO;
+import com.spooltracker.dto.FilamentUsageDTO;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolLocation;
+import com.spooltracker.util.ColorScience;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * In-memory index of active spools used to match 3MF filaments to spools.
+ * <p>
+ * Spools are bucketed by filament type (which fixes the material), and each
+ * bucket keeps its entries sorted by precomputed L*. A probe selects the buckets
+ * whose material matches, takes the entries within the L* band that any color
+ * inside the maximum ΔE2000 must fall in ({@link ColorScience#maxLightnessDifference})
+ * and scores them with ΔE2000 via {@link ColorMatchService}. A Euclidean Lab
+ * radius is not a safe prefilter: saturated colors can be a close ΔE2000 match
+ * while far apart in Lab.
+ * <p>
+ * Spool writes update entries incrementally via {@link SpoolMatchIndexListener};
+ * a bucket's sorted entries are rebuilt lazily on the next probe after it changed. Renames
+ * of colors, materials, manufacturers or locations mark the whole index stale;
+ * it is then reloaded outside the lock and swapped in, and probes keep using the
+ * previous index meanwhile.
+ */
+@ApplicationScoped
+public class SpoolMatchIndex {
+
+    private static final Logger LOG = Logger.getLogger(SpoolMatchIndex.class);
+
+    private static final String LOAD_QUERY = "SELECT s.id, s.uid, filamentType.id, filamentType.name, material.name,"
+        + " manufacturer.name, color.name, color.hexCode, s.currentWeightGrams, s.initialWeightGrams,"
+        + " storageLocation.name, s.legacyLocation, color.labL, color.labA, color.labB"
+        + " FROM Spool s"
+        + " JOIN s.filamentType filamentType"
+        + " LEFT JOIN filamentType.material material"
+        + " JOIN s.manufacturer manufacturer"
+        + " JOIN s.color color"
+        + " LEFT JOIN s.storageLocation storageLocation"
+        + " WHERE s.isEmpty = false OR s.isEmpty IS NULL";
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ColorMatchService colorMatchService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes rebuilds; the database is read without holding the read/write lock
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Map<Long, Bucket> buckets = new HashMap<>();
+    private Map<Long, Long> bucketBySpool = new HashMap<>();
+
+    // Bumped by invalidate(); the index is current while builtGeneration matches it
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long builtGeneration = -1;
+    // Spool writes that arrive while a rebuild is loading, replayed onto the new index
+    // (null value = removal). Guarded by the write lock.
+    private Map<Long, Entry> pendingUpserts;
+
+    /**
+     * Snapshot of an active spool with its precomputed color coordinates.
+     */
+    public record Entry(
+        Long id,
+        String uid,
+        Long filamentTypeId,
+        String manufacturerName,
+        String filamentTypeName,
+        String materialName,
+        String colorName,
+        String colorHexCode,
+        Double currentWeightGrams,
+        Double remainingPercentage,
+        String storageLocationName,
+        float labL,
+        float labA,
+        float labB
+    ) {}
+
+    /**
+     * Find spools matching a filament usage by material and color, best match first.
+     */
+    public List<SpoolMatchDTO> findMatches(FilamentUsageDTO usage) {
+        double[] target = new double[3];
+        if (!ColorScience.hexToLab(usage.colorHex(), target)) {
+            return List.of();
+        }
+        ensureLoaded();
+
+        String usageType = usage.type().toUpperCase();
+        // Widened slightly so entries stored as floats are never cut off by rounding
+        float band = (float) ColorScience.maxLightnessDifference(colorMatchService.maxDeltaE()) + 0.01f;
+        List<SpoolMatchDTO> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Bucket bucket : buckets.values()) {
+                if (!bucket.matchesMaterial(usageType)) {
+                    continue;
+                }
+                withinLightness(bucket.byLightness(), (float) target[0], band, entry -> {
+                    int colorScore = colorMatchService.score(
+                        target[0], target[1], target[2], entry.labL(), entry.labA(), entry.labB());
+                    if (colorScore < 0) {
+                        return;
+                    }
+                    // Adjust score based on availability
+                    double currentWeight = entry.currentWeightGrams() != null ? entry.currentWeightGrams() : 0;
+                    boolean hasEnough = currentWeight >= usage.usedGrams();
+                    int finalScore = hasEnough ? colorScore : colorScore / 2;
+                    matches.add(toMatch(entry, finalScore));
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Sort by match score (highest first)
+        matches.sort(Comparator.comparingInt(SpoolMatchDTO::matchScore).reversed()
+            .thenComparing(SpoolMatchDTO::id));
+        return matches;
+    }
+
+    /**
+     * Visit the entries, sorted by L*, whose L* lies within {@code band} of {@code l}.
+     */
+    static void withinLightness(Entry[] sorted, float l, float band, Consumer<Entry> visitor) {
+        float low = l - band;
+        float high = l + band;
+        // First entry with L* >= low
+        int from = 0;
+        int to = sorted.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (sorted[mid].labL() < low) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        for (int i = from; i < sorted.length && sorted[i].labL() <= high; i++) {
+            visitor.accept(sorted[i]);
+        }
+    }
+
+    /**
+     * Insert, refresh or (when entry is null) remove a spool.
+     */
+    public void upsert(Long spoolId, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpserts != null) {
+                pendingUpserts.put(spoolId, entry);
+            }
+            apply(buckets, bucketBySpool, spoolId, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long spoolId) {
+        upsert(spoolId, null);
+    }
+
+    /**
+     * Mark the whole index for rebuild, e.g. after reference data was renamed.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private void ensureLoaded() {
+        if (builtGeneration == generation.get()) {
+            return;
+        }
+        if (builtGeneration >= 0) {
+            // An older index exists: probes keep using it while one thread rebuilds
+            if (rebuildLock.tryLock()) {
+                try {
+                    rebuild();
+                } finally {
+                    rebuildLock.unlock();
+                }
+            }
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Load the active spools and swap them in. Called with the rebuild lock held.
+     */
+    void rebuild() {
+        long target = generation.get();
+        if (builtGeneration == target) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            pendingUpserts = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Map<Long, Bucket> loadedBuckets = new HashMap<>();
+        Map<Long, Long> loadedBySpool = new HashMap<>();
+        try {
+            for (Object[] row : loadRows()) {
+                Entry entry = toEntry(row);
+                if (entry != null) {
+                    addEntry(loadedBuckets, loadedBySpool, entry);
+                }
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingUpserts = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Writes committed after the rows were read must not be lost
+            for (Map.Entry<Long, Entry> pending : pendingUpserts.entrySet()) {
+                apply(loadedBuckets, loadedBySpool, pending.getKey(), pending.getValue());
+            }
+            pendingUpserts = null;
+            buckets = loadedBuckets;
+            bucketBySpool = loadedBySpool;
+            // An invalidation during the load leaves the index stale for the next probe
+            builtGeneration = target;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.infof("Spool match index built: %d active spools in %d buckets in %d ms",
+            loadedBySpool.size(), loadedBuckets.size(), System.currentTimeMillis() - start);
+    }
+
+    @Transactional
+    List<Object[]> loadRows() {
+        return em.createQuery(LOAD_QUERY, Object[].class).getResultList();
+    }
+
+    private static void apply(Map<Long, Bucket> buckets, Map<Long, Long> bucketBySpool, Long spoolId, Entry entry) {
+        removeEntry(buckets, bucketBySpool, spoolId);
+        if (entry != null) {
+            addEntry(buckets, bucketBySpool, entry);
+        }
+    }
+
+    private static void addEntry(Map<Long, Bucket> buckets, Map<Long, Long> bucketBySpool, Entry entry) {
+        Long bucketKey = bucketKey(entry.filamentTypeId());
+        buckets.computeIfAbsent(bucketKey, k -> new Bucket(
+            entry.materialName(),
+            entry.filamentTypeName() != null ? entry.filamentTypeName().toUpperCase() : ""
+        )).put(entry);
+        bucketBySpool.put(entry.id(), bucketKey);
+    }
+
+    private static void removeEntry(Map<Long, Bucket> buckets, Map<Long, Long> bucketBySpool, Long spoolId) {
+        Long bucketKey = bucketBySpool.remove(spoolId);
+        if (bucketKey != null) {
+            Bucket bucket = buckets.get(bucketKey);
+            bucket.remove(spoolId);
+            if (bucket.isEmpty()) {
+                buckets.remove(bucketKey);
+            }
+        }
+    }
+
+    private static Long bucketKey(Long filamentTypeId) {
+        return filamentTypeId != null ? filamentTypeId : -1L;
+    }
+
+    private static Entry toEntry(Object[] row) {
+        String hexCode = (String) row[7];
+        double[] lab = labOf((Double) row[12], (Double) row[13], (Double) row[14], hexCode);
+        if (lab == null) {
+            return null;
+        }
+        Double currentWeight = (Double) row[8];
+        Double initialWeight = (Double) row[9];
+        String locationName = (String) row[10];
+        SpoolLocation legacyLocation = (SpoolLocation) row[11];
+        return new Entry(
+            (Long) row[0],
+            (String) row[1],
+            (Long) row[2],
+            (String) row[5],
+            (String) row[3],
+            row[4] != null ? ((String) row[4]).toUpperCase() : "",
+            (String) row[6],
+            hexCode,
+            currentWeight,
+            Spool.remainingPercentage(initialWeight, currentWeight),
+            locationName != null ? locationName
+                : (legacyLocation != null ? legacyLocation.getDisplayName() : "Unknown"),
+            (float) lab[0], (float) lab[1], (float) lab[2]
+        );
+    }
+
+    /**
+     * Capture the index entry for a spool, or null if it should not be matched
+     * (empty spools and spools without a usable color).
+     */
+    public static Entry snapshot(Spool spool) {
+        if (Boolean.TRUE.equals(spool.isEmpty) || spool.color == null) {
+            return null;
+        }
+        double[] lab = labOf(spool.color.labL, spool.color.labA, spool.color.labB, spool.color.hexCode);
+        if (lab == null) {
+            return null;
+        }
+        return new Entry(
+            spool.id,
+            spool.uid,
+            spool.filamentType != null ? spool.filamentType.id : null,
+            spool.manufacturer != null ? spool.manufacturer.name : null,
+            spool.filamentType != null ? spool.filamentType.name : null,
+            spool.filamentType != null && spool.filamentType.material != null
+                ? spool.filamentType.material.name.toUpperCase() : "",
+            spool.color.name,
+            spool.color.hexCode,
+            spool.currentWeightGrams,
+            spool.getRemainingPercentage(),
+            spool.storageLocation != null ? spool.storageLocation.name
+                : (spool.legacyLocation != null ? spool.legacyLocation.getDisplayName() : "Unknown"),
+            (float) lab[0], (float) lab[1], (float) lab[2]
+        );
+    }
+
+    private static SpoolMatchDTO toMatch(Entry entry, int score) {
+        return new SpoolMatchDTO(
+            entry.id(),
+            entry.uid(),
+            entry.manufacturerName() != null ? entry.manufacturerName() : "Unknown",
+            entry.filamentTypeName() != null ? entry.filamentTypeName() : "Unknown",
+            entry.materialName(),
+            entry.colorName(),
+            entry.colorHexCode(),
+            entry.currentWeightGrams(),
+            entry.remainingPercentage(),
+            entry.storageLocationName(),
+            score
+        );
+    }
+
+    /**
+     * Stored CIELAB coordinates, computed from the hex code for colors not yet backfilled.
+     */
+    private static double[] labOf(Double labL, Double labA, Double labB, String hexCode) {
+        if (labL != null && labA != null && labB != null) {
+            return new double[] { labL, labA, labB };
+        }
+        double[] lab = new double[3];
+        return ColorScience.hexToLab(hexCode, lab) ? lab : null;
+    }
+
+    /**
+     * Spools of one filament type, with entries sorted by L* rebuilt lazily.
+     */
+    static final Comparator<Entry> BY_LIGHTNESS = Comparator.comparingDouble(Entry::labL);
+
+    private static class Bucket {
+        private final String materialName;
+        private final String filamentTypeName;
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private Entry[] byLightness;
+
+        Bucket(String materialName, String filamentTypeName) {
+            this.materialName = materialName;
+            this.filamentTypeName = filamentTypeName;
+        }
+
+        // Material match (PLA, PETG, etc.) against either the material or the type name
+        boolean matchesMaterial(String usageType) {
+            return materialName.contains(usageType)
+                || filamentTypeName.contains(usageType)
+                || usageType.contains(materialName);
+        }
+
+        void put(Entry entry) {
+            entries.put(entry.id(), entry);
+            byLightness = null;
+        }
+
+        void remove(Long spoolId) {
+            if (entries.remove(spoolId) != null) {
+                byLightness = null;
+            }
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        synchronized Entry[] byLightness() {
+            if (byLightness == null) {
+                Entry[] sorted = entries.values().toArray(new Entry[0]);
+                Arrays.sort(sorted, BY_LIGHTNESS);
+                byLightness = sorted;
+            }
+            return byLightness;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.spooltracker.service;
+
+import com.spooltracker.entity.Spool;
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that keeps {@link SpoolMatchIndex} in sync.
+ * Spool writes are applied incrementally after commit; writes to reference
+ * data (colors, types, materials, manufacturers, locations) invalidate the index.
+ */
+public class SpoolMatchIndexListener {
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        SpoolMatchIndex index = Arc.container().instance(SpoolMatchIndex.class).get();
+        if (entity instanceof Spool spool) {
+            Long id = spool.id;
+            SpoolMatchIndex.Entry entry = SpoolMatchIndex.snapshot(spool);
+            TransactionHooks.afterCommit(() -> index.upsert(id, entry));
+        } else {
+            TransactionHooks.afterCommit(index::invalidate);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        SpoolMatchIndex index = Arc.container().instance(SpoolMatchIndex.class).get();
+        if (entity instanceof Spool spool) {
+            Long id = spool.id;
+            TransactionHooks.afterCommit(() -> index.remove(id));
+        } else {
+            TransactionHooks.afterCommit(index::invalidate);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.spooltracker.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.spooltracker.dto.SpoolDTO;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.entity.SpoolLocation;
+import com.spooltracker.entity.SpoolType;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Read-only spool listing that selects straight into {@link SpoolDTO} rows.
+ * Uses a single explicit join query instead of hydrating {@link Spool} entities
+ * (and their eager associations), so nothing enters the persistence context
+ * and no dirty checking happens at flush time.
+ */
+@ApplicationScoped
+public class SpoolQueryService {
+
+    /**
+     * FROM clause shared by all listing queries. Filter conditions may use the
+     * aliases {@code s}, {@code filamentType}, {@code color}, {@code manufacturer},
+     * {@code material} and {@code storageLocation}.
+     */
+    public static final String FROM_CLAUSE = "FROM Spool s"
+        + " JOIN s.filamentType filamentType"
+        + " JOIN s.color color"
+        + " JOIN s.manufacturer manufacturer"
+        + " LEFT JOIN filamentType.material material"
+        + " LEFT JOIN s.storageLocation storageLocation";
+
+    private static final String SELECT_CLAUSE = "SELECT s.id, s.uid,"
+        + " filamentType.id, filamentType.name, material.name,"
+        + " color.id, color.name, color.hexCode, color.productCode,"
+        + " manufacturer.id, manufacturer.name, manufacturer.logoUrl,"
+        + " s.legacyLocation, s.locationDetails,"
+        + " storageLocation.id, storageLocation.name, storageLocation.locationType,"
+        + " s.spoolType, s.initialWeightGrams, s.currentWeightGrams,"
+        + " s.purchaseDate, s.openedDate, s.lastUsedDate, s.purchasePrice, s.purchaseCurrency,"
+        + " s.notes, s.colorNumber, s.isEmpty, s.createdAt, s.updatedAt,"
+        + " filamentType.diameterMm, filamentType.densityGPerCm3,"
+        + " filamentType.minNozzleTemp, filamentType.maxNozzleTemp,"
+        + " filamentType.minBedTemp, filamentType.maxBedTemp,"
+        + " storageLocation.fullPath ";
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * List spools matching the given JPQL condition as DTOs.
+     *
+     * @param whereClause JPQL condition using positional parameters (?1, ?2, ...), or null for all spools
+     * @param params Positional parameter values
+     * @param firstResult Index of the first row to return
+     * @param maxResults Maximum number of rows to return
+     * @return Flat spool DTOs ordered by id
+     */
+    public List<SpoolDTO> list(String whereClause, List<Object> params, int firstResult, int maxResults) {
+        return list(whereClause, params, "s.id", firstResult, maxResults);
+    }
+
+    /**
+     * List spools matching the given JPQL condition as DTOs, in the given order.
+     *
+     * @param orderBy JPQL ORDER BY expression using the aliases of {@link #FROM_CLAUSE}, e.g. "s.updatedAt, s.id"
+     */
+    public List<SpoolDTO> list(String whereClause, List<Object> params, String orderBy, int firstResult, int maxResults) {
+        String jpql = SELECT_CLAUSE + FROM_CLAUSE
+            + (whereClause != null ? " WHERE " + whereClause : "")
+            + " ORDER BY " + orderBy;
+
+        TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        query.setFirstResult(firstResult);
+        query.setMaxResults(maxResults);
+
+        List<Object[]> rows = query.getResultList();
+        List<SpoolDTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(toDTO(row));
+        }
+        return result;
+    }
+
+    private SpoolDTO toDTO(Object[] row) {
+        Double initialWeight = (Double) row[18];
+        Double currentWeight = (Double) row[19];
+        return new SpoolDTO(
+            (Long) row[0],
+            (String) row[1],
+            (Long) row[2],
+            (String) row[3],
+            (String) row[4],
+            (Long) row[5],
+            (String) row[6],
+            (String) row[7],
+            (String) row[8],
+            (Long) row[9],
+            (String) row[10],
+            (String) row[11],
+            (SpoolLocation) row[12],
+            (String) row[13],
+            (Long) row[14],
+            (String) row[15],
+            (String) row[16],
+            (String) row[36],
+            (SpoolType) row[17],
+            initialWeight,
+            currentWeight,
+            Spool.remainingPercentage(initialWeight, currentWeight),
+            (LocalDate) row[20],
+            (LocalDate) row[21],
+            (LocalDate) row[22],
+            (Double) row[23],
+            (String) row[24],
+            (String) row[25],
+            (String) row[26],
+            (Boolean) row[27],
+            (LocalDateTime) row[28],
+            (LocalDateTime) row[29],
+            (Double) row[30],
+            (Double) row[31],
+            (Integer) row[32],
+            (Integer) row[33],
+            (Integer) row[34],
+            (Integer) row[35]
+        );
+    }
+}
@@ -0,0 +1,345 @@
+package com.spooltracker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * In-process search index backing the spool {@code search} filter.
+ * <p>
+ * Answers the same question as the old {@code LOWER(x) LIKE '%term%'} predicates
+ * (substring match on color name, color number, notes, manufacturer name and
+ * filament type name) without a join scan:
+ * <ul>
+ *   <li>Color, manufacturer and filament type names live in small dictionaries
+ *       with id → spool postings, so renaming a color is a single entry update.</li>
+ *   <li>Per-spool text (color number and notes) is covered by a trigram index;
+ *       candidates are verified against the stored text, so results are exact.</li>
+ * </ul>
+ * The index is built at startup and kept in sync by {@link SpoolSearchIndexListener}.
+ * Until it is ready, {@link #search(String)} returns null and callers fall back to SQL.
+ */
+@ApplicationScoped
+public class SpoolSearchIndex {
+
+    private static final Logger LOG = Logger.getLogger(SpoolSearchIndex.class);
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "spooltracker.search.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // Dictionaries: entity id -> lowercase name
+    private final Map<Long, String> colorNames = new HashMap<>();
+    private final Map<Long, String> manufacturerNames = new HashMap<>();
+    private final Map<Long, String> filamentTypeNames = new HashMap<>();
+
+    // Postings: entity id -> spool ids referencing it
+    private final Map<Long, Set<Long>> colorSpools = new HashMap<>();
+    private final Map<Long, Set<Long>> manufacturerSpools = new HashMap<>();
+    private final Map<Long, Set<Long>> filamentTypeSpools = new HashMap<>();
+
+    // Per-spool state: references (to unlink on update) and own searchable text
+    private final Map<Long, long[]> spoolRefs = new HashMap<>();
+    private final Map<Long, String> spoolText = new HashMap<>();
+    private final Map<Long, Set<Long>> trigrams = new HashMap<>();
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            LOG.info("Spool search index disabled, search will use SQL LIKE predicates");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            LOG.warnf(e, "Failed to build spool search index, search will use SQL LIKE predicates");
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database using scalar queries.
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Object[]> colors = em.createQuery("SELECT c.id, c.name FROM FilamentColor c", Object[].class).getResultList();
+        List<Object[]> manufacturers = em.createQuery("SELECT m.id, m.name FROM Manufacturer m", Object[].class).getResultList();
+        List<Object[]> types = em.createQuery("SELECT t.id, t.name FROM FilamentType t", Object[].class).getResultList();
+        List<Object[]> spools = em.createQuery(
+                "SELECT s.id, s.color.id, s.manufacturer.id, s.filamentType.id, s.colorNumber, s.notes FROM Spool s",
+                Object[].class)
+            .getResultList();
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Object[] row : colors) {
+                putName(colorNames, (Long) row[0], (String) row[1]);
+            }
+            for (Object[] row : manufacturers) {
+                putName(manufacturerNames, (Long) row[0], (String) row[1]);
+            }
+            for (Object[] row : types) {
+                putName(filamentTypeNames, (Long) row[0], (String) row[1]);
+            }
+            for (Object[] row : spools) {
+                doIndexSpool((Long) row[0], (Long) row[1], (Long) row[2], (Long) row[3], (String) row[4], (String) row[5]);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.infof("Spool search index built: %d spools in %d ms", spools.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Find spools whose color name, color number, notes, manufacturer name or
+     * filament type name contains the given term (case-insensitive).
+     *
+     * @param term Search term
+     * @return Matching spool ids in ascending order, or null if the index is not ready
+     */
+    public long[] search(String term) {
+        if (!ready) {
+            return null;
+        }
+        String needle = term.toLowerCase(Locale.ROOT).trim();
+        Set<Long> matches = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            collectByName(needle, colorNames, colorSpools, matches);
+            collectByName(needle, manufacturerNames, manufacturerSpools, matches);
+            collectByName(needle, filamentTypeNames, filamentTypeSpools, matches);
+
+            if (needle.length() >= 3) {
+                for (Long spoolId : trigramCandidates(needle)) {
+                    if (spoolText.get(spoolId).contains(needle)) {
+                        matches.add(spoolId);
+                    }
+                }
+            } else {
+                // Too short for trigrams - scan the in-memory text instead of the database
+                for (Map.Entry<Long, String> entry : spoolText.entrySet()) {
+                    if (entry.getValue().contains(needle)) {
+                        matches.add(entry.getKey());
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long[] ids = new long[matches.size()];
+        int i = 0;
+        for (Long id : matches) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    public void indexSpool(Long id, Long colorId, Long manufacturerId, Long filamentTypeId, String colorNumber, String notes) {
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            doIndexSpool(id, colorId, manufacturerId, filamentTypeId, colorNumber, notes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSpool(Long id) {
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unlinkSpool(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putColor(Long id, String name) {
+        updateName(colorNames, id, name);
+    }
+
+    public void putManufacturer(Long id, String name) {
+        updateName(manufacturerNames, id, name);
+    }
+
+    public void putFilamentType(Long id, String name) {
+        updateName(filamentTypeNames, id, name);
+    }
+
+    public void removeColor(Long id) {
+        updateName(colorNames, id, null);
+    }
+
+    public void removeManufacturer(Long id) {
+        updateName(manufacturerNames, id, null);
+    }
+
+    public void removeFilamentType(Long id) {
+        updateName(filamentTypeNames, id, null);
+    }
+
+    private void updateName(Map<Long, String> names, Long id, String name) {
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (name == null) {
+                names.remove(id);
+            } else {
+                putName(names, id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        colorNames.clear();
+        manufacturerNames.clear();
+        filamentTypeNames.clear();
+        colorSpools.clear();
+        manufacturerSpools.clear();
+        filamentTypeSpools.clear();
+        spoolRefs.clear();
+        spoolText.clear();
+        trigrams.clear();
+    }
+
+    private void putName(Map<Long, String> names, Long id, String name) {
+        names.put(id, name != null ? name.toLowerCase(Locale.ROOT) : "");
+    }
+
+    private void doIndexSpool(Long id, Long colorId, Long manufacturerId, Long filamentTypeId, String colorNumber, String notes) {
+        unlinkSpool(id);
+
+        spoolRefs.put(id, new long[] {
+            colorId != null ? colorId : -1,
+            manufacturerId != null ? manufacturerId : -1,
+            filamentTypeId != null ? filamentTypeId : -1
+        });
+        link(colorSpools, colorId, id);
+        link(manufacturerSpools, manufacturerId, id);
+        link(filamentTypeSpools, filamentTypeId, id);
+
+        // Separator keeps a match from spanning the two fields
+        String text = ((colorNumber != null ? colorNumber : "") + "\n" + (notes != null ? notes : ""))
+            .toLowerCase(Locale.ROOT);
+        spoolText.put(id, text);
+        for (long gram : trigramsOf(text)) {
+            trigrams.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void unlinkSpool(Long id) {
+        long[] refs = spoolRefs.remove(id);
+        if (refs != null) {
+            unlink(colorSpools, refs[0], id);
+            unlink(manufacturerSpools, refs[1], id);
+            unlink(filamentTypeSpools, refs[2], id);
+        }
+        String text = spoolText.remove(id);
+        if (text != null) {
+            for (long gram : trigramsOf(text)) {
+                Set<Long> posting = trigrams.get(gram);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void link(Map<Long, Set<Long>> postings, Long key, Long spoolId) {
+        if (key != null) {
+            postings.computeIfAbsent(key, k -> new HashSet<>()).add(spoolId);
+        }
+    }
+
+    private static void unlink(Map<Long, Set<Long>> postings, long key, Long spoolId) {
+        Set<Long> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(spoolId);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static void collectByName(String needle, Map<Long, String> names,
+                                      Map<Long, Set<Long>> postings, Set<Long> matches) {
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            if (entry.getValue().contains(needle)) {
+                Set<Long> spools = postings.get(entry.getKey());
+                if (spools != null) {
+                    matches.addAll(spools);
+                }
+            }
+        }
+    }
+
+    /**
+     * Intersect the postings of every trigram in the needle, smallest first.
+     */
+    private Set<Long> trigramCandidates(String needle) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (long gram : trigramsOf(needle)) {
+            Set<Long> posting = trigrams.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            postings.add(posting);
+        }
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<Long> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return candidates;
+    }
+
+    private static Set<Long> trigramsOf(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
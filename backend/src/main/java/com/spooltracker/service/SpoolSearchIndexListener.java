@@ -0,0 +1,73 @@
+package com.spooltracker.service;
+
+import java.util.function.Consumer;
+
+import com.spooltracker.entity.FilamentColor;
+import com.spooltracker.entity.FilamentType;
+import com.spooltracker.entity.Manufacturer;
+import com.spooltracker.entity.Spool;
+import com.spooltracker.util.TransactionHooks;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that keeps {@link SpoolSearchIndex} in sync with spool,
+ * color, manufacturer and filament type writes.
+ * Field values are captured at flush time and applied only after the
+ * transaction commits, so rolled-back writes never reach the index.
+ */
+public class SpoolSearchIndexListener {
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Spool spool) {
+            Long id = spool.id;
+            Long colorId = spool.color != null ? spool.color.id : null;
+            Long manufacturerId = spool.manufacturer != null ? spool.manufacturer.id : null;
+            Long filamentTypeId = spool.filamentType != null ? spool.filamentType.id : null;
+            String colorNumber = spool.colorNumber;
+            String notes = spool.notes;
+            afterCommit(index -> index.indexSpool(id, colorId, manufacturerId, filamentTypeId, colorNumber, notes));
+        } else if (entity instanceof FilamentColor color) {
+            Long id = color.id;
+            String name = color.name;
+            afterCommit(index -> index.putColor(id, name));
+        } else if (entity instanceof Manufacturer manufacturer) {
+            Long id = manufacturer.id;
+            String name = manufacturer.name;
+            afterCommit(index -> index.putManufacturer(id, name));
+        } else if (entity instanceof FilamentType type) {
+            Long id = type.id;
+            String name = type.name;
+            afterCommit(index -> index.putFilamentType(id, name));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Spool spool) {
+            Long id = spool.id;
+            afterCommit(index -> index.removeSpool(id));
+        } else if (entity instanceof FilamentColor color) {
+            Long id = color.id;
+            afterCommit(index -> index.removeColor(id));
+        } else if (entity instanceof Manufacturer manufacturer) {
+            Long id = manufacturer.id;
+            afterCommit(index -> index.removeManufacturer(id));
+        } else if (entity instanceof FilamentType type) {
+            Long id = type.id;
+            afterCommit(index -> index.removeFilamentType(id));
+        }
+    }
+
+    private void afterCommit(Consumer<SpoolSearchIndex> update) {
+        SpoolSearchIndex index = Arc.container().instance(SpoolSearchIndex.class).get();
+        if (index.isReady()) {
+            TransactionHooks.afterCommit(() -> update.accept(index));
+        }
+    }
+}
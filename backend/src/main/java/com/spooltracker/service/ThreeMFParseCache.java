@@ -0,0 +1,229 @@
+package com.spooltracker.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Content-addressed cache of parsed 3MF files.
+ * <p>
+ * Results are keyed by the SHA-256 of the uploaded bytes, so reprints of the same
+ * sliced file skip unzipping and XML parsing entirely. The in-memory map is a
+ * size-bounded LRU; when a cache directory is configured, entries are also written
+ * there as JSON and reloaded on demand after a restart. Evicted entries are removed
+ * from disk as well, so the directory never holds more than the configured maximum,
+ * and cache hits touch their file so its modification time tracks the last use.
+ */
+@ApplicationScoped
+public class ThreeMFParseCache {
+
+    private static final Logger LOG = Logger.getLogger(ThreeMFParseCache.class);
+
+    // Bump when ParseResult changes shape so stale files on disk are ignored
+    private static final String FORMAT_VERSION = "v1";
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    @Inject
+    ThreeMFParserService parserService;
+
+    @ConfigProperty(name = "spooltracker.parse-cache.max-entries", defaultValue = "256")
+    int maxEntries;
+
+    @ConfigProperty(name = "spooltracker.parse-cache.dir")
+    Optional<String> cacheDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, ThreeMFParserService.ParseResult> entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ThreeMFParserService.ParseResult> eldest) {
+                if (size() > maxEntries) {
+                    deleteFile(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            pruneDirectory();
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to prune 3MF parse cache directory");
+        }
+    }
+
+    /**
+     * Keep only the most recently used entries on disk, since the in-memory
+     * LRU order is lost across restarts.
+     */
+    void pruneDirectory() throws IOException {
+        if (cacheDir.isEmpty() || !Files.isDirectory(Path.of(cacheDir.get()))) {
+            return;
+        }
+        List<Path> files;
+        try (var stream = Files.list(Path.of(cacheDir.get()))) {
+            files = stream
+                .filter(path -> path.getFileName().toString().endsWith(".json"))
+                .sorted(Comparator.comparing(ThreeMFParseCache::lastModified).reversed())
+                .toList();
+        }
+        for (Path path : files.subList(Math.min(maxEntries, files.size()), files.size())) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Parse a 3MF file on disk, reusing the cached result for identical content
+     */
+    public ThreeMFParserService.ParseResult parse(Path file) throws Exception {
+        String key = sha256(file);
+
+        ThreeMFParserService.ParseResult result = get(key);
+        if (result != null) {
+            touchFile(key);
+            return result;
+        }
+
+        result = parserService.parse(file);
+        put(key, result);
+        return result;
+    }
+
+    private ThreeMFParserService.ParseResult get(String key) {
+        synchronized (entries) {
+            ThreeMFParserService.ParseResult result = entries.get(key);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        ThreeMFParserService.ParseResult result = readFile(key);
+        if (result != null) {
+            synchronized (entries) {
+                entries.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    private void put(String key, ThreeMFParserService.ParseResult result) {
+        synchronized (entries) {
+            entries.put(key, result);
+        }
+        writeFile(key, result);
+    }
+
+    /**
+     * Streaming SHA-256 over the file contents, as lowercase hex
+     */
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path filePath(String key) {
+        return cacheDir.map(dir -> Path.of(dir, FORMAT_VERSION + "-" + key + ".json")).orElse(null);
+    }
+
+    private ThreeMFParserService.ParseResult readFile(String key) {
+        Path path = filePath(key);
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(path.toFile(), ThreeMFParserService.ParseResult.class);
+        } catch (IOException e) {
+            LOG.warnf(e, "Discarding unreadable 3MF parse cache entry %s", path);
+            deleteFile(key);
+            return null;
+        }
+    }
+
+    private void writeFile(String key, ThreeMFParserService.ParseResult result) {
+        Path path = filePath(key);
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            // Write to a temp file first so readers never see a partial entry
+            Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            objectMapper.writeValue(temp.toFile(), result);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to persist 3MF parse cache entry %s", path);
+        }
+    }
+
+    private void touchFile(String key) {
+        Path path = filePath(key);
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+        } catch (NoSuchFileException e) {
+            // Deleted by an eviction in the meantime
+        } catch (IOException e) {
+            LOG.debugf(e, "Failed to touch 3MF parse cache entry %s", path);
+        }
+    }
+
+    private void deleteFile(String key) {
+        Path path = filePath(key);
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to delete 3MF parse cache entry %s", path);
+        }
+    }
+}
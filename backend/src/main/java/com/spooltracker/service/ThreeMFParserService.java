@@ -1,17 +1,17 @@
 package com.spooltracker.service;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 
 import com.spooltracker.dto.FilamentUsageDTO;
 
@@ -23,17 +23,87 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class ThreeMFParserService {
 
+    static final String SLICE_INFO_ENTRY = "Metadata/slice_info.config";
+
+    private static final String NOT_SLICED_MESSAGE =
+        "No slice_info.config found in 3MF file. Make sure the file has been sliced.";
+
+    // Factories are thread-safe once configured, so one instance is shared by all parses
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Disable DTDs and external entities for security
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
     /**
      * Parse result containing all extracted data from a 3MF file
      */
     public record ParseResult(
         String printerModel,
+        List<PlateResult> plates
+    ) {
+        /**
+         * Look up a plate by its slicer index, or the first plate when index is null
+         */
+        public PlateResult plate(Integer index) {
+            if (index == null) {
+                return plates.get(0);
+            }
+            for (PlateResult plate : plates) {
+                if (plate.index() == index) {
+                    return plate;
+                }
+            }
+            throw new IllegalArgumentException("Plate " + index + " not found in 3MF file");
+        }
+    }
+
+    /**
+     * Print time, weight and filament usage of a single plate
+     */
+    public record PlateResult(
+        int index,
         int estimatedTimeSeconds,
         double totalWeightGrams,
         boolean usesSupport,
+        List<String> objects,
         List<FilamentUsageDTO> filaments
     ) {}
 
+    /**
+     * Parse a 3MF file on disk and extract filament usage data.
+     * The entry is located through the ZIP central directory, so meshes and thumbnails
+     * stored before it are skipped instead of being inflated.
+     * @param file The 3MF file
+     * @return ParseResult containing extracted data
+     */
+    public ParseResult parse(Path file) throws Exception {
+        ZipFile zipFile;
+        try {
+            zipFile = new ZipFile(file.toFile());
+        } catch (ZipException e) {
+            // Archives without a readable central directory (e.g. truncated uploads)
+            // may still contain the entry, so fall back to a sequential scan
+            try (InputStream is = java.nio.file.Files.newInputStream(file)) {
+                return parse(is);
+            }
+        }
+        try (zipFile) {
+            ZipEntry entry = zipFile.getEntry(SLICE_INFO_ENTRY);
+            if (entry == null) {
+                throw new IllegalArgumentException(NOT_SLICED_MESSAGE);
+            }
+            try (InputStream is = zipFile.getInputStream(entry)) {
+                return parseSliceInfo(is);
+            }
+        }
+    }
+
     /**
      * Parse a 3MF file and extract filament usage data
      * @param inputStream The 3MF file input stream
@@ -44,65 +114,128 @@ public class ThreeMFParserService {
         try (ZipInputStream zipIn = new ZipInputStream(inputStream)) {
             ZipEntry entry;
             while ((entry = zipIn.getNextEntry()) != null) {
-                if (entry.getName().equals("Metadata/slice_info.config")) {
+                if (entry.getName().equals(SLICE_INFO_ENTRY)) {
                     return parseSliceInfo(zipIn);
                 }
             }
         }
-        throw new IllegalArgumentException("No slice_info.config found in 3MF file. Make sure the file has been sliced.");
+        throw new IllegalArgumentException(NOT_SLICED_MESSAGE);
     }
 
+    /**
+     * Single-pass streaming walk over slice_info.config.
+     * Collects every plate's metadata, objects and filament attributes without building a DOM.
+     */
     private ParseResult parseSliceInfo(InputStream inputStream) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        // Disable external entities for security
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(inputStream);
-
-        Element root = doc.getDocumentElement();
-        NodeList plateNodes = root.getElementsByTagName("plate");
-        
-        if (plateNodes.getLength() == 0) {
-            throw new IllegalArgumentException("No plate data found in slice_info.config");
-        }
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        try {
+            String printerModel = null;
+            List<PlateResult> plates = new ArrayList<>();
+            PlateBuilder plate = null;
+            int plateDepth = -1;
+            int depth = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (plate == null) {
+                        if ("plate".equals(name)) {
+                            plate = new PlateBuilder(plates.size() + 1);
+                            plateDepth = depth;
+                        }
+                    } else if ("metadata".equals(name)) {
+                        String key = reader.getAttributeValue(null, "key");
+                        String value = reader.getAttributeValue(null, "value");
+                        if ("printer_model_id".equals(key)) {
+                            if (printerModel == null) {
+                                printerModel = value;
+                            }
+                        } else {
+                            plate.metadata(key, value);
+                        }
+                    } else if ("object".equals(name)) {
+                        plate.objects.add(attribute(reader, "name"));
+                    } else if ("filament".equals(name)) {
+                        plate.filaments.add(readFilament(reader));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (plate != null && depth == plateDepth) {
+                        plates.add(plate.build());
+                        plate = null;
+                    }
+                    depth--;
+                }
+            }
 
-        Element plate = (Element) plateNodes.item(0);
-        
-        // Extract metadata
-        String printerModel = getMetadataValue(plate, "printer_model_id", "Unknown");
-        int estimatedTime = Integer.parseInt(getMetadataValue(plate, "prediction", "0"));
-        double totalWeight = Double.parseDouble(getMetadataValue(plate, "weight", "0"));
-        boolean usesSupport = Boolean.parseBoolean(getMetadataValue(plate, "support_used", "false"));
-
-        // Extract filament usage
-        List<FilamentUsageDTO> filaments = new ArrayList<>();
-        NodeList filamentNodes = plate.getElementsByTagName("filament");
-        
-        for (int i = 0; i < filamentNodes.getLength(); i++) {
-            Element filament = (Element) filamentNodes.item(i);
-            
-            int id = Integer.parseInt(filament.getAttribute("id"));
-            String type = filament.getAttribute("type");
-            String color = filament.getAttribute("color").toUpperCase();
-            double usedMeters = Double.parseDouble(filament.getAttribute("used_m"));
-            double usedGrams = Double.parseDouble(filament.getAttribute("used_g"));
-            String nozzleDiameter = filament.getAttribute("nozzle_diameter");
-
-            filaments.add(new FilamentUsageDTO(id, type, color, usedMeters, usedGrams, nozzleDiameter));
+            if (plates.isEmpty()) {
+                throw new IllegalArgumentException("No plate data found in slice_info.config");
+            }
+
+            return new ParseResult(printerModel != null ? printerModel : "Unknown", List.copyOf(plates));
+        } finally {
+            reader.close();
         }
+    }
 
-        return new ParseResult(printerModel, estimatedTime, totalWeight, usesSupport, filaments);
+    private FilamentUsageDTO readFilament(XMLStreamReader reader) {
+        int id = Integer.parseInt(attribute(reader, "id"));
+        String type = attribute(reader, "type");
+        String color = attribute(reader, "color").toUpperCase();
+        double usedMeters = Double.parseDouble(attribute(reader, "used_m"));
+        double usedGrams = Double.parseDouble(attribute(reader, "used_g"));
+        String nozzleDiameter = attribute(reader, "nozzle_diameter");
+        return new FilamentUsageDTO(id, type, color, usedMeters, usedGrams, nozzleDiameter);
     }
 
-    private String getMetadataValue(Element plate, String key, String defaultValue) {
-        NodeList metadataNodes = plate.getElementsByTagName("metadata");
-        for (int i = 0; i < metadataNodes.getLength(); i++) {
-            Element metadata = (Element) metadataNodes.item(i);
-            if (key.equals(metadata.getAttribute("key"))) {
-                return metadata.getAttribute("value");
+    // Missing attributes read as empty strings, matching DOM getAttribute()
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+
+    /**
+     * Accumulates a plate while its element is open
+     */
+    private static class PlateBuilder {
+        private int index;
+        // First occurrence of a key wins, like the previous DOM lookup
+        private String prediction;
+        private String weight;
+        private String supportUsed;
+        private final List<String> objects = new ArrayList<>();
+        private final List<FilamentUsageDTO> filaments = new ArrayList<>();
+
+        PlateBuilder(int ordinal) {
+            this.index = ordinal;
+        }
+
+        void metadata(String key, String value) {
+            if ("index".equals(key)) {
+                try {
+                    index = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    // Keep the ordinal position
+                }
+            } else if ("prediction".equals(key) && prediction == null) {
+                prediction = value;
+            } else if ("weight".equals(key) && weight == null) {
+                weight = value;
+            } else if ("support_used".equals(key) && supportUsed == null) {
+                supportUsed = value;
             }
         }
-        return defaultValue;
+
+        PlateResult build() {
+            return new PlateResult(
+                index,
+                Integer.parseInt(prediction != null ? prediction : "0"),
+                Double.parseDouble(weight != null ? weight : "0"),
+                Boolean.parseBoolean(supportUsed != null ? supportUsed : "false"),
+                List.copyOf(objects),
+                List.copyOf(filaments)
+            );
+        }
     }
 }
-
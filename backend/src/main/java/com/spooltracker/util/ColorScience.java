@@ -0,0 +1,169 @@
+package com.spooltracker.util;
+
+/**
+ * Utility class for perceptual color math: sRGB hex to CIELAB (D65) conversion
+ * and the CIEDE2000 color difference.
+ * All methods work on primitives and do not allocate, so they can be called in
+ * tight matching loops.
+ */
+public class ColorScience {
+
+    // D65 reference white
+    private static final double XN = 0.95047;
+    private static final double YN = 1.0;
+    private static final double ZN = 1.08883;
+
+    private static final double POW25_7 = 6103515625.0; // 25^7
+
+    // Upper bound of the CIEDE2000 lightness weight SL, reached at L' = 0 or 100 (1.7474...)
+    private static final double MAX_LIGHTNESS_WEIGHT = 1.75;
+
+    /**
+     * Converts a "#RRGGBB" hex code (optionally followed by alpha) to CIELAB.
+     *
+     * @param hex The hex color
+     * @param out Receives L*, a*, b* at indexes 0..2
+     * @return true on success, false if the hex code is invalid
+     */
+    public static boolean hexToLab(String hex, double[] out) {
+        if (hex == null || hex.length() < 7 || hex.charAt(0) != '#') {
+            return false;
+        }
+        int r;
+        int g;
+        int b;
+        try {
+            r = Integer.parseInt(hex, 1, 3, 16);
+            g = Integer.parseInt(hex, 3, 5, 16);
+            b = Integer.parseInt(hex, 5, 7, 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        rgbToLab(r, g, b, out);
+        return true;
+    }
+
+    /**
+     * Converts 8-bit sRGB components to CIELAB (D65).
+     */
+    public static void rgbToLab(int r, int g, int b, double[] out) {
+        double rl = linearize(r / 255.0);
+        double gl = linearize(g / 255.0);
+        double bl = linearize(b / 255.0);
+
+        double x = (0.4124564 * rl + 0.3575761 * gl + 0.1804375 * bl) / XN;
+        double y = (0.2126729 * rl + 0.7151522 * gl + 0.0721750 * bl) / YN;
+        double z = (0.0193339 * rl + 0.1191920 * gl + 0.9503041 * bl) / ZN;
+
+        double fx = labF(x);
+        double fy = labF(y);
+        double fz = labF(z);
+
+        out[0] = 116 * fy - 16;
+        out[1] = 500 * (fx - fy);
+        out[2] = 200 * (fy - fz);
+    }
+
+    /**
+     * Largest difference in L* two colors can have while their CIEDE2000 difference
+     * is at most {@code deltaE}.
+     * <p>
+     * The chroma and hue terms of ΔE2000 never sum to a negative value (|RT| < 2),
+     * so ΔE2000 ≥ |ΔL*| / SL. Unlike a Euclidean Lab radius, this bound holds for
+     * saturated colors, whose chroma and hue differences ΔE2000 shrinks by up to SC and SH.
+     */
+    public static double maxLightnessDifference(double deltaE) {
+        return deltaE * MAX_LIGHTNESS_WEIGHT;
+    }
+
+    /**
+     * CIEDE2000 color difference between two CIELAB colors (kL = kC = kH = 1).
+     */
+    public static double deltaE2000(double l1, double a1, double b1, double l2, double a2, double b2) {
+        double c1 = Math.sqrt(a1 * a1 + b1 * b1);
+        double c2 = Math.sqrt(a2 * a2 + b2 * b2);
+        double cBar = (c1 + c2) / 2;
+        double cBar7 = pow7(cBar);
+        double g = 0.5 * (1 - Math.sqrt(cBar7 / (cBar7 + POW25_7)));
+
+        double a1p = (1 + g) * a1;
+        double a2p = (1 + g) * a2;
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+        double h1p = hueAngle(b1, a1p);
+        double h2p = hueAngle(b2, a2p);
+
+        double dLp = l2 - l1;
+        double dCp = c2p - c1p;
+
+        double cProduct = c1p * c2p;
+        double dhp;
+        if (cProduct == 0) {
+            dhp = 0;
+        } else {
+            dhp = h2p - h1p;
+            if (dhp > 180) {
+                dhp -= 360;
+            } else if (dhp < -180) {
+                dhp += 360;
+            }
+        }
+        double dHp = 2 * Math.sqrt(cProduct) * Math.sin(Math.toRadians(dhp / 2));
+
+        double lBarP = (l1 + l2) / 2;
+        double cBarP = (c1p + c2p) / 2;
+        double hBarP;
+        if (cProduct == 0) {
+            hBarP = h1p + h2p;
+        } else if (Math.abs(h1p - h2p) <= 180) {
+            hBarP = (h1p + h2p) / 2;
+        } else if (h1p + h2p < 360) {
+            hBarP = (h1p + h2p + 360) / 2;
+        } else {
+            hBarP = (h1p + h2p - 360) / 2;
+        }
+
+        double t = 1
+            - 0.17 * Math.cos(Math.toRadians(hBarP - 30))
+            + 0.24 * Math.cos(Math.toRadians(2 * hBarP))
+            + 0.32 * Math.cos(Math.toRadians(3 * hBarP + 6))
+            - 0.20 * Math.cos(Math.toRadians(4 * hBarP - 63));
+
+        double hDiff = (hBarP - 275) / 25;
+        double dTheta = 30 * Math.exp(-(hDiff * hDiff));
+        double cBarP7 = pow7(cBarP);
+        double rC = 2 * Math.sqrt(cBarP7 / (cBarP7 + POW25_7));
+        double lOffset = (lBarP - 50) * (lBarP - 50);
+        double sL = 1 + (0.015 * lOffset) / Math.sqrt(20 + lOffset);
+        double sC = 1 + 0.045 * cBarP;
+        double sH = 1 + 0.015 * cBarP * t;
+        double rT = -Math.sin(Math.toRadians(2 * dTheta)) * rC;
+
+        double lTerm = dLp / sL;
+        double cTerm = dCp / sC;
+        double hTerm = dHp / sH;
+        return Math.sqrt(lTerm * lTerm + cTerm * cTerm + hTerm * hTerm + rT * cTerm * hTerm);
+    }
+
+    private static double linearize(double c) {
+        return c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static double labF(double t) {
+        return t > 0.008856 ? Math.cbrt(t) : 7.787 * t + 16.0 / 116.0;
+    }
+
+    private static double hueAngle(double b, double ap) {
+        if (b == 0 && ap == 0) {
+            return 0;
+        }
+        double h = Math.toDegrees(Math.atan2(b, ap));
+        return h < 0 ? h + 360 : h;
+    }
+
+    private static double pow7(double x) {
+        double x2 = x * x;
+        double x3 = x2 * x;
+        return x3 * x3 * x;
+    }
+}
@@ -0,0 +1,97 @@
+package com.spooltracker.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Utility class for opaque keyset pagination cursors.
+ * A cursor encodes the id of the last row returned so the next page can be
+ * fetched with a seek predicate ({@code id > ?}) instead of an OFFSET.
+ * Feeds ordered by time use a position cursor holding both the timestamp and the
+ * id of the last row, which breaks ties between rows with the same timestamp.
+ */
+public class Cursor {
+
+    private static final String PREFIX = "id:";
+    private static final String POSITION_PREFIX = "ts:";
+    private static final char POSITION_SEPARATOR = '|';
+
+    /**
+     * Position of the last row in a feed ordered by (timestamp, id).
+     */
+    public record Position(LocalDateTime timestamp, long id) {}
+
+    /**
+     * Encodes the last seen id into an opaque, URL-safe cursor.
+     *
+     * @param lastId The id of the last row on the current page
+     * @return Opaque cursor string
+     */
+    public static String encode(long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(long)}.
+     *
+     * @param cursor The opaque cursor, or null/blank for the first page
+     * @return The last seen id, or null if the cursor is null or blank
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and Base64 decoding errors
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encodes the timestamp and id of the last row into an opaque, URL-safe cursor.
+     *
+     * @param timestamp The ordering timestamp of the last row on the current page
+     * @param lastId The id of the last row on the current page
+     * @return Opaque cursor string
+     */
+    public static String encode(LocalDateTime timestamp, long lastId) {
+        byte[] raw = (POSITION_PREFIX + timestamp + POSITION_SEPARATOR + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(LocalDateTime, long)}.
+     *
+     * @param cursor The opaque cursor, or null/blank for the first page
+     * @return The last seen position, or null if the cursor is null or blank
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+            int separator = raw.lastIndexOf(POSITION_SEPARATOR);
+            if (!raw.startsWith(POSITION_PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(
+                LocalDateTime.parse(raw.substring(POSITION_PREFIX.length(), separator)),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -48,5 +48,14 @@ public class ResponseHelper {
             .entity(new ErrorResponse(message, "INTERNAL_SERVER_ERROR", Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), path))
             .build();
     }
-}
 
+    /**
+     * Creates a standardized SERVICE_UNAVAILABLE error response.
+     */
+    public static Response serviceUnavailable(String message, UriInfo uriInfo) {
+        String path = uriInfo != null ? uriInfo.getPath() : "unknown";
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .entity(new ErrorResponse(message, "SERVICE_UNAVAILABLE", Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), path))
+            .build();
+    }
+}
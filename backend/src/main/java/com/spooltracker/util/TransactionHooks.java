@@ -0,0 +1,70 @@
+package com.spooltracker.util;
+
+import java.util.function.Consumer;
+
+import org.hibernate.StaleStateException;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Utility class for running side effects (cache and index updates) only once
+ * the current transaction has committed.
+ */
+public class TransactionHooks {
+
+    /**
+     * Runs the action after the current transaction commits, or immediately
+     * if no transaction is active. The action is dropped on rollback.
+     *
+     * @param action The side effect to run
+     */
+    public static void afterCommit(Runnable action) {
+        afterCompletion(committed -> {
+            if (committed) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the callback once the current transaction completes, with true if it
+     * committed, or immediately with true if no transaction is active.
+     *
+     * @param callback Receives whether the transaction committed
+     */
+    public static void afterCompletion(Consumer<Boolean> callback) {
+        TransactionSynchronizationRegistry registry = Arc.container() != null
+            ? Arc.container().instance(TransactionSynchronizationRegistry.class).get() : null;
+        if (registry == null || registry.getTransactionKey() == null) {
+            callback.accept(true);
+            return;
+        }
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == Status.STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Whether the exception (or any cause) is an optimistic lock failure, i.e. a
+     * versioned entity was changed by another transaction since it was read.
+     */
+    public static boolean isVersionConflict(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
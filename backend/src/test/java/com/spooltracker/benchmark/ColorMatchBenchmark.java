@@ -0,0 +1,134 @@
+package com.spooltracker.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.spooltracker.util.ColorScience;
+
+/**
+ * Compares the legacy string-based RGB scorer with ΔE2000 over precomputed
+ * CIELAB coordinates, scoring one filament color against a spool inventory,
+ * both as a full scan and behind the L* band prefilter used by SpoolMatchIndex.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=ColorMatchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorMatchBenchmark {
+
+    private static final int SPOOLS = 10_000;
+
+    private String targetHex;
+    private String[] spoolHex;
+    private double[] target;
+    private double[] spoolL;
+    private double[] spoolA;
+    private double[] spoolB;
+    // Spool indexes sorted by L*
+    private Integer[] byLightness;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        targetHex = String.format("#%06X", random.nextInt(0x1000000));
+        target = new double[3];
+        ColorScience.hexToLab(targetHex, target);
+
+        spoolHex = new String[SPOOLS];
+        spoolL = new double[SPOOLS];
+        spoolA = new double[SPOOLS];
+        spoolB = new double[SPOOLS];
+        double[] lab = new double[3];
+        for (int i = 0; i < SPOOLS; i++) {
+            spoolHex[i] = String.format("#%06X", random.nextInt(0x1000000));
+            ColorScience.hexToLab(spoolHex[i], lab);
+            spoolL[i] = lab[0];
+            spoolA[i] = lab[1];
+            spoolB[i] = lab[2];
+        }
+
+        byLightness = new Integer[SPOOLS];
+        for (int i = 0; i < SPOOLS; i++) {
+            byLightness[i] = i;
+        }
+        Arrays.sort(byLightness, (x, y) -> Double.compare(spoolL[x], spoolL[y]));
+    }
+
+    @Benchmark
+    public void legacyRgbFromStrings(Blackhole blackhole) {
+        for (int i = 0; i < SPOOLS; i++) {
+            blackhole.consume(legacyColorMatchScore(targetHex, spoolHex[i]));
+        }
+    }
+
+    @Benchmark
+    public void deltaE2000Precomputed(Blackhole blackhole) {
+        for (int i = 0; i < SPOOLS; i++) {
+            blackhole.consume(ColorScience.deltaE2000(
+                target[0], target[1], target[2], spoolL[i], spoolA[i], spoolB[i]));
+        }
+    }
+
+    @Benchmark
+    public void deltaE2000LightnessBandProbe(Blackhole blackhole) {
+        // Same prefilter as SpoolMatchIndex with the default max ΔE of 25
+        double band = ColorScience.maxLightnessDifference(25);
+        for (Integer i : byLightness) {
+            if (spoolL[i] < target[0] - band) {
+                continue;
+            }
+            if (spoolL[i] > target[0] + band) {
+                break;
+            }
+            blackhole.consume(ColorScience.deltaE2000(
+                target[0], target[1], target[2], spoolL[i], spoolA[i], spoolB[i]));
+        }
+    }
+
+    /**
+     * The scorer previously used by print job matching, kept as the baseline.
+     */
+    private static int legacyColorMatchScore(String hex1, String hex2) {
+        try {
+            int r1 = Integer.parseInt(hex1.substring(1, 3), 16);
+            int g1 = Integer.parseInt(hex1.substring(3, 5), 16);
+            int b1 = Integer.parseInt(hex1.substring(5, 7), 16);
+
+            int r2 = Integer.parseInt(hex2.substring(1, 3), 16);
+            int g2 = Integer.parseInt(hex2.substring(3, 5), 16);
+            int b2 = Integer.parseInt(hex2.substring(5, 7), 16);
+
+            double distance = Math.sqrt(
+                Math.pow(r1 - r2, 2) +
+                Math.pow(g1 - g2, 2) +
+                Math.pow(b1 - b2, 2)
+            );
+            double maxDistance = 441.67;
+            int score = (int) ((1 - (distance / maxDistance)) * 100);
+            return Math.max(0, Math.min(100, score));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
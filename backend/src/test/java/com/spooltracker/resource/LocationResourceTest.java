@@ -0,0 +1,181 @@
+package com.spooltracker.resource;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.entity.FilamentColor;
+import com.spooltracker.entity.FilamentType;
+import com.spooltracker.entity.Location;
+import com.spooltracker.entity.Manufacturer;
+import com.spooltracker.entity.Material;
+import com.spooltracker.entity.Spool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+public class LocationResourceTest {
+
+    private static final int SPOOLS = 24;
+    private static final int THREADS = 12;
+    private static final int CROSS_MOVE_ROUNDS = 6;
+
+    @Test
+    public void testConcurrentMovesDoNotOverfillSlot() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long[] ids = QuarkusTransaction.requiringNew().call(() -> createSlotAndSpools(suffix));
+        long locationId = ids[0];
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 1; i < ids.length; i++) {
+                long spoolId = ids[i];
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return given()
+                        .when().post("/api/locations/" + locationId + "/spools/" + spoolId)
+                        .then().extract().statusCode();
+                }));
+            }
+            start.countDown();
+
+            int moved = 0;
+            int rejected = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get();
+                if (code == 200) {
+                    moved++;
+                } else if (code == 400) {
+                    rejected++;
+                }
+            }
+            assertEquals(4, moved);
+            assertEquals(SPOOLS - 4, rejected);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long counter = QuarkusTransaction.requiringNew().call(() -> Location.<Location>findById(locationId).spoolCount);
+        long actual = QuarkusTransaction.requiringNew().call(() -> Spool.count("storageLocation.id", locationId));
+        assertEquals(4, counter);
+        assertEquals(4, actual);
+    }
+
+    @Test
+    public void testCrossMovesDoNotDeadlock() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long[] ids = QuarkusTransaction.requiringNew().call(() -> createSlotAndSpools(suffix));
+        long first = ids[0];
+        long second = QuarkusTransaction.requiringNew().call(() -> createSlot("AMS 2 " + suffix, SPOOLS));
+        QuarkusTransaction.requiringNew().run(() -> Location.update("capacity = ?1 where id = ?2", SPOOLS, first));
+
+        // Every spool moves back and forth between the two locations, half of them
+        // starting towards each one, so moves in both directions run at the same time
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> statuses = new ArrayList<>();
+        try {
+            for (int i = 1; i < ids.length; i++) {
+                long spoolId = ids[i];
+                long[] targets = i % 2 == 0 ? new long[] { first, second } : new long[] { second, first };
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> codes = new ArrayList<>();
+                    for (int round = 0; round < CROSS_MOVE_ROUNDS; round++) {
+                        codes.add(given()
+                            .when().post("/api/locations/" + targets[round % 2] + "/spools/" + spoolId)
+                            .then().extract().statusCode());
+                    }
+                    return codes;
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<Integer>> status : statuses) {
+                for (int code : status.get()) {
+                    assertEquals(200, code);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long locationId : new long[] { first, second }) {
+            long counter = QuarkusTransaction.requiringNew().call(() -> Location.<Location>findById(locationId).spoolCount);
+            long actual = QuarkusTransaction.requiringNew().call(() -> Spool.count("storageLocation.id", locationId));
+            assertEquals(actual, counter);
+        }
+    }
+
+    @Test
+    public void testTreeRevalidatesWithEtag() {
+        String etag = given()
+          .when().get("/api/locations/tree")
+          .then()
+             .statusCode(200)
+             .extract().header("ETag");
+
+        given()
+          .header("If-None-Match", etag)
+          .when().get("/api/locations/tree")
+          .then()
+             .statusCode(304);
+    }
+
+    /**
+     * @return The id of a 4-slot AMS location, followed by the ids of unplaced spools
+     */
+    private static long[] createSlotAndSpools(String suffix) {
+        Material material = new Material();
+        material.name = "PLA " + suffix;
+        material.persist();
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.name = "Maker " + suffix;
+        manufacturer.persist();
+
+        FilamentType type = new FilamentType();
+        type.name = "Basic " + suffix;
+        type.material = material;
+        type.manufacturer = manufacturer;
+        type.persist();
+
+        FilamentColor color = new FilamentColor();
+        color.name = "White";
+        color.hexCode = "#FFFFFF";
+        color.filamentType = type;
+        color.persist();
+
+        long[] ids = new long[SPOOLS + 1];
+        ids[0] = createSlot("AMS " + suffix, 4);
+        for (int i = 1; i <= SPOOLS; i++) {
+            Spool spool = new Spool();
+            spool.filamentType = type;
+            spool.color = color;
+            spool.manufacturer = manufacturer;
+            spool.persist();
+            ids[i] = spool.id;
+        }
+        return ids;
+    }
+
+    private static long createSlot(String name, int capacity) {
+        Location ams = new Location();
+        ams.name = name;
+        ams.locationType = "AMS";
+        ams.capacity = capacity;
+        ams.persist();
+        return ams.id;
+    }
+}
@@ -26,6 +26,25 @@ public class SpoolResourceTest {
              .statusCode(200);
     }
 
+    @Test
+    public void testGetAllSpoolsWithCursor() {
+        given()
+          .queryParam("cursor", "")
+          .queryParam("pageSize", 10)
+          .when().get("/api/spools")
+          .then()
+             .statusCode(200);
+    }
+
+    @Test
+    public void testGetAllSpoolsWithInvalidCursor() {
+        given()
+          .queryParam("cursor", "not-a-cursor")
+          .when().get("/api/spools")
+          .then()
+             .statusCode(400);
+    }
+
     @Test
     public void testGetSpoolByIdNotFound() {
         given()
@@ -0,0 +1,172 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.exception.IdempotencyKeyException;
+
+import jakarta.ws.rs.core.Response;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IdempotencyServiceTest {
+
+    static final List<Double> REQUEST = List.of(250.0);
+
+    static IdempotencyService service(int maxKeys) {
+        IdempotencyService service = new IdempotencyService();
+        service.maxKeys = maxKeys;
+        service.ttl = Duration.ofHours(1);
+        service.waitTimeout = Duration.ofSeconds(5);
+        return service;
+    }
+
+    @Test
+    public void testReplaysSuccessfulResponse() {
+        IdempotencyService service = service(10);
+        AtomicInteger runs = new AtomicInteger();
+
+        Response first = service.execute("confirm", "key-1", REQUEST, () -> Response.ok("deducted " + runs.incrementAndGet()).build());
+        Response second = service.execute("confirm", "key-1", REQUEST, () -> Response.ok("deducted " + runs.incrementAndGet()).build());
+
+        assertEquals(1, runs.get());
+        assertEquals("deducted 1", second.getEntity());
+        assertEquals(first.getStatus(), second.getStatus());
+        assertEquals("true", second.getHeaderString(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaderString(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testKeysAreScoped() {
+        IdempotencyService service = service(10);
+        AtomicInteger runs = new AtomicInteger();
+
+        service.execute("spool-weight:1", "key", REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+        service.execute("spool-weight:2", "key", REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+        service.execute("confirm", null, REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+        service.execute("confirm", null, REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    public void testFailuresReleaseKey() {
+        IdempotencyService service = service(10);
+        AtomicInteger runs = new AtomicInteger();
+
+        service.execute("confirm", "key", REQUEST, () -> {
+            runs.incrementAndGet();
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        });
+        assertThrows(IllegalStateException.class, () -> service.execute("confirm", "key", REQUEST, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        Response response = service.execute("confirm", "key", REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+
+        assertEquals(3, runs.get());
+        assertEquals(3, response.getEntity());
+    }
+
+    @Test
+    public void testConcurrentDuplicateWaitsForFirst() throws Exception {
+        IdempotencyService service = service(10);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() ->
+            service.execute("confirm", "key", REQUEST, () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return Response.ok("first").build();
+            }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Response> second = CompletableFuture.supplyAsync(() ->
+            service.execute("confirm", "key", REQUEST, () -> Response.ok("second " + runs.incrementAndGet()).build()));
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getEntity());
+        assertEquals("first", second.get(5, TimeUnit.SECONDS).getEntity());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testRejectsKeyReusedForDifferentRequest() {
+        IdempotencyService service = service(10);
+        AtomicInteger runs = new AtomicInteger();
+
+        service.execute("spool-weight:1", "key", List.of(250.0), () -> Response.ok(runs.incrementAndGet()).build());
+        IdempotencyKeyException e = assertThrows(IdempotencyKeyException.class, () ->
+            service.execute("spool-weight:1", "key", List.of(200.0), () -> Response.ok(runs.incrementAndGet()).build()));
+        Response replayed = service.execute("spool-weight:1", "key", List.of(250.0), () -> Response.ok(runs.incrementAndGet()).build());
+
+        assertEquals(422, e.getStatus());
+        assertEquals(1, runs.get());
+        assertEquals(1, replayed.getEntity());
+    }
+
+    @Test
+    public void testDuplicateGivesUpWaitingForSlowFirst() throws Exception {
+        IdempotencyService service = service(10);
+        service.waitTimeout = Duration.ofMillis(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() ->
+            service.execute("confirm", "key", REQUEST, () -> {
+                started.countDown();
+                await(release);
+                return Response.ok("first").build();
+            }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        IdempotencyKeyException e = assertThrows(IdempotencyKeyException.class, () ->
+            service.execute("confirm", "key", REQUEST, () -> Response.ok("second").build()));
+        release.countDown();
+
+        assertEquals(409, e.getStatus());
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getEntity());
+    }
+
+    @Test
+    public void testEvictsOldestKeys() {
+        IdempotencyService service = service(2);
+        AtomicInteger runs = new AtomicInteger();
+
+        for (String key : new String[] { "a", "b", "c", "d" }) {
+            service.execute("confirm", key, REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+        }
+        // "a" was evicted, so it runs again
+        service.execute("confirm", "a", REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+        service.execute("confirm", "d", REQUEST, () -> Response.ok(runs.incrementAndGet()).build());
+
+        assertEquals(5, runs.get());
+    }
+
+    @Test
+    public void testRejectsOversizedKey() {
+        IdempotencyService service = service(10);
+        assertThrows(IllegalArgumentException.class, () ->
+            service.execute("confirm", "k".repeat(201), REQUEST, () -> Response.ok().build()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.dto.ImportJobDTO;
+import com.spooltracker.entity.ImportJob;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ImportJobServiceTest {
+
+    static int countLines(String content, ByteArrayOutputStream out) throws IOException {
+        return ImportJobService.copyCountingLines(
+            new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), out);
+    }
+
+    @Test
+    public void testCopiesAndCountsLines() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String csv = "UID,Color Name\nabc,White\ndef,Black\n";
+
+        assertEquals(3, countLines(csv, out));
+        assertArrayEquals(csv.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testCountsLastLineWithoutNewline() throws IOException {
+        assertEquals(2, countLines("UID\nabc", new ByteArrayOutputStream()));
+        assertEquals(0, countLines("", new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testReportsProgressOfCurrentRun() {
+        ImportJob job = new ImportJob();
+        job.id = "job-1";
+        job.status = ImportJobService.STATUS_COMPLETED;
+        job.totalLines = 1000;
+        job.startLine = 201;
+        job.lastCommittedLine = 1001;
+        job.startedAt = LocalDateTime.of(2024, 6, 1, 10, 0, 0);
+        job.completedAt = job.startedAt.plusSeconds(4);
+        job.errors = "[\"Line 7: UID is required\"]";
+        job.errorCount = 1;
+
+        ImportJobDTO dto = new ImportJobService().toDTO(job);
+
+        assertEquals(1000, dto.processedLines());
+        assertEquals(200.0, dto.linesPerSecond());
+        assertEquals(1, dto.errors().size());
+        assertNull(dto.error());
+    }
+}
@@ -0,0 +1,76 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.entity.Location;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LocationHierarchyServiceTest {
+
+    static Location location(long id, String name, Location parent) {
+        Location location = new Location();
+        location.id = id;
+        location.name = name;
+        location.parent = parent;
+        return location;
+    }
+
+    @Test
+    public void testPlacesNewLocationsUnderParent() {
+        LocationHierarchyService service = new LocationHierarchyService();
+        Location rack = location(1, "Rack A", null);
+        service.place(rack);
+        Location slot = location(12, "Slot 1", rack);
+        service.place(slot);
+
+        assertEquals("/1/", rack.path);
+        assertEquals(0, rack.depth);
+        assertEquals("/1/12/", slot.path);
+        assertEquals("Rack A > Slot 1", slot.fullPath);
+        assertEquals("Rack A > Slot 1", slot.getFullPath());
+        assertEquals(1, slot.depth);
+    }
+
+    @Test
+    public void testAncestorIdsComeFromPath() {
+        Location location = location(12, "Slot 1", null);
+        location.path = "/1/5/12/";
+
+        assertEquals(List.of(1L, 5L), LocationHierarchyService.ancestorIds(location));
+    }
+
+    @Test
+    public void testAncestorIdsWithoutPathWalkParents() {
+        Location rack = location(1, "Rack A", null);
+        Location shelf = location(5, "Shelf 2", rack);
+        Location slot = location(12, "Slot 1", shelf);
+
+        assertEquals(List.of(1L, 5L), LocationHierarchyService.ancestorIds(slot));
+    }
+
+    @Test
+    public void testRejectsMoveIntoOwnSubtree() {
+        LocationHierarchyService service = new LocationHierarchyService();
+        Location rack = location(1, "Rack A", null);
+        rack.path = "/1/";
+        Location slot = location(12, "Slot 1", rack);
+        slot.path = "/1/12/";
+
+        rack.parent = slot;
+        assertThrows(IllegalArgumentException.class, () -> service.place(rack));
+
+        rack.parent = rack;
+        assertThrows(IllegalArgumentException.class, () -> service.place(rack));
+    }
+
+    @Test
+    public void testPathPrefixesDoNotMatchSiblingIds() {
+        // "/12/" must not look like it is inside "/1/"
+        assertFalse(LocationHierarchyService.pathOf(null, 12L).startsWith(LocationHierarchyService.pathOf(null, 1L)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.entity.Location;
+import com.spooltracker.entity.Spool;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocationOccupancyServiceTest {
+
+    static Location location(long id) {
+        Location location = new Location();
+        location.id = id;
+        return location;
+    }
+
+    static Spool spoolAt(Location location) {
+        Spool spool = new Spool();
+        spool.storageLocation = location;
+        return spool;
+    }
+
+    @Test
+    public void testCountsInsertedSpoolsPerLocationId() {
+        Location rack = location(1);
+        Location slot = location(2);
+
+        Map<Location, Integer> counts = LocationOccupancyService.countByLocation(List.of(
+            spoolAt(rack), spoolAt(slot), spoolAt(location(1)), spoolAt(null), spoolAt(rack)));
+
+        assertEquals(2, counts.size());
+        assertEquals(3, counts.get(rack));
+        assertEquals(1, counts.get(slot));
+    }
+
+    @Test
+    public void testCountsLocationsInIdOrder() {
+        Map<Location, Integer> counts = LocationOccupancyService.countByLocation(List.of(
+            spoolAt(location(9)), spoolAt(location(2)), spoolAt(location(5)), spoolAt(location(2))));
+
+        assertEquals(List.of(2L, 5L, 9L), counts.keySet().stream().map(location -> location.id).toList());
+    }
+
+    @Test
+    public void testPlacingAtSameLocationKeepsCount() {
+        Location rack = location(1);
+        rack.spoolCount = 4;
+        Spool spool = spoolAt(rack);
+        Location sameRack = location(1);
+
+        // No counter update, so no database is needed
+        new LocationOccupancyService().place(spool, sameRack);
+
+        assertSame(sameRack, spool.storageLocation);
+        assertEquals(4, rack.spoolCount);
+    }
+
+    @Test
+    public void testFullLocationStillAcceptsSpoolAlreadyThere() {
+        Location slot = location(1);
+        slot.capacity = 1;
+        slot.spoolCount = 1;
+        Spool spool = spoolAt(slot);
+
+        assertTrue(new LocationOccupancyService().placeWithinCapacity(spool, slot));
+        assertEquals(1, slot.spoolCount);
+    }
+
+    @Test
+    public void testOccupancyGrantsFreePlaces() {
+        assertEquals(2, new LocationOccupancyService.Occupancy(2, 4).free(3));
+        assertEquals(0, new LocationOccupancyService.Occupancy(5, 4).free(1));
+        assertEquals(7, new LocationOccupancyService.Occupancy(9, null).free(7));
+    }
+
+    @Test
+    public void testCapacityUsesCounter() {
+        Location slot = location(1);
+        slot.capacity = 1;
+        assertTrue(slot.hasCapacity());
+
+        slot.spoolCount = 1;
+        assertFalse(slot.hasCapacity());
+
+        slot.capacity = null;
+        assertTrue(slot.hasCapacity());
+    }
+}
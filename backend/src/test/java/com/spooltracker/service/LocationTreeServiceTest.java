@@ -0,0 +1,61 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.dto.LocationDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LocationTreeServiceTest {
+
+    static Object[] row(long id, String name, Long parentId, boolean active, long spoolCount) {
+        return new Object[] {
+            id, name, null, "RACK", parentId, null, null, null, null, 0, active, spoolCount, null
+        };
+    }
+
+    @Test
+    public void testAssemblesTreeOfAnyDepth() {
+        List<LocationDTO> roots = LocationTreeService.assemble(List.of(
+            row(1, "Rack A", null, true, 0),
+            row(2, "Shelf 1", 1L, true, 1),
+            row(3, "Box", 2L, true, 3),
+            row(4, "Shelf 2", 1L, true, 0),
+            row(5, "Rack B", null, true, 2)
+        ));
+
+        assertEquals(2, roots.size());
+        LocationDTO rack = roots.get(0);
+        assertEquals("Rack A", rack.name());
+        assertEquals(List.of("Shelf 1", "Shelf 2"), rack.children().stream().map(LocationDTO::name).toList());
+        LocationDTO box = rack.children().get(0).children().get(0);
+        assertEquals("Box", box.name());
+        assertEquals(3L, box.spoolCount());
+        assertNull(box.children());
+    }
+
+    @Test
+    public void testSkipsInactiveRoots() {
+        List<LocationDTO> roots = LocationTreeService.assemble(List.of(
+            row(1, "Old Rack", null, false, 0),
+            row(2, "Shelf", 1L, true, 0),
+            row(3, "Rack", null, true, 0)
+        ));
+
+        assertEquals(List.of("Rack"), roots.stream().map(LocationDTO::name).toList());
+    }
+
+    @Test
+    public void testEtagFollowsContent() {
+        byte[] tree = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(LocationTreeService.etagOf(tree), LocationTreeService.etagOf(tree.clone()));
+        assertNotEquals(LocationTreeService.etagOf(tree),
+            LocationTreeService.etagOf("[{\"id\":2}]".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.spooltracker.dto.ParseJobDTO;
+import com.spooltracker.dto.PrintJobParseResultDTO;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParseJobServiceTest {
+
+    static class BlockingPrintJobService extends PrintJobService {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public PrintJobParseResultDTO analyze(Path file, String fileName, Integer plate) throws Exception {
+            release.await(5, TimeUnit.SECONDS);
+            if (fileName.startsWith("bad")) {
+                throw new IllegalArgumentException("No slice_info.config found");
+            }
+            return new PrintJobParseResultDTO(fileName, "C12", 1, 60, 2.0, false, List.of(), List.of());
+        }
+    }
+
+    static ParseJobService service(PrintJobService printJobService, int concurrency, int queueDepth) {
+        ParseJobService service = new ParseJobService();
+        service.printJobService = printJobService;
+        service.concurrency = concurrency;
+        service.queueDepth = queueDepth;
+        service.retention = Duration.ofMinutes(15);
+        service.init();
+        return service;
+    }
+
+    static Path upload(Path dir, String name) throws Exception {
+        return Files.write(dir.resolve(name), new byte[] { 1, 2, 3 });
+    }
+
+    static ParseJobDTO await(ParseJobService service, String id) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        service.subscribe(id, job -> {
+            if (job.completedAt() != null) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return service.get(id);
+    }
+
+    @Test
+    public void testJobCompletes(@TempDir Path dir) throws Exception {
+        BlockingPrintJobService printJobService = new BlockingPrintJobService();
+        ParseJobService service = service(printJobService, 1, 4);
+
+        Path upload = upload(dir, "upload.tmp");
+        ParseJobDTO job = service.submit(upload, "model.3mf", null);
+        assertNotNull(job);
+        assertFalse(Files.exists(upload));
+
+        List<String> statuses = new CopyOnWriteArrayList<>();
+        service.subscribe(job.id(), update -> statuses.add(update.status()));
+        printJobService.release.countDown();
+
+        ParseJobDTO finished = await(service, job.id());
+        assertEquals(ParseJobService.STATUS_COMPLETED, finished.status());
+        assertEquals("model.3mf", finished.result().fileName());
+        assertEquals(ParseJobService.STATUS_COMPLETED, statuses.get(statuses.size() - 1));
+    }
+
+    @Test
+    public void testJobFails(@TempDir Path dir) throws Exception {
+        BlockingPrintJobService printJobService = new BlockingPrintJobService();
+        printJobService.release.countDown();
+        ParseJobService service = service(printJobService, 1, 4);
+
+        ParseJobDTO job = service.submit(upload(dir, "upload.tmp"), "bad.3mf", null);
+
+        ParseJobDTO finished = await(service, job.id());
+        assertEquals(ParseJobService.STATUS_FAILED, finished.status());
+        assertEquals("No slice_info.config found", finished.error());
+        assertNull(finished.result());
+    }
+
+    @Test
+    public void testQueueDepthLimit(@TempDir Path dir) throws Exception {
+        BlockingPrintJobService printJobService = new BlockingPrintJobService();
+        ParseJobService service = service(printJobService, 1, 1);
+
+        // The first job starts a worker directly, the second fills the queue
+        assertNotNull(service.submit(upload(dir, "a.tmp"), "a.3mf", null));
+        ParseJobDTO queued = service.submit(upload(dir, "b.tmp"), "b.3mf", null);
+        assertNotNull(queued);
+        assertEquals(ParseJobService.STATUS_QUEUED, queued.status());
+        assertNull(service.submit(upload(dir, "c.tmp"), "c.3mf", null));
+
+        printJobService.release.countDown();
+        assertEquals(ParseJobService.STATUS_COMPLETED, await(service, queued.id()).status());
+    }
+}
@@ -0,0 +1,64 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.dto.BulkSpoolOperationDTO.Item;
+import com.spooltracker.dto.BulkSpoolResultDTO.ItemResult;
+import com.spooltracker.entity.Spool;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SpoolBulkServiceTest {
+
+    static Spool spool(long id, String uid) {
+        Spool spool = new Spool();
+        spool.id = id;
+        spool.uid = uid;
+        return spool;
+    }
+
+    @Test
+    public void testResolvesItemsByIdOrUid() {
+        Spool first = spool(1, "SPL-001");
+        Spool second = spool(2, "SPL-002");
+        List<Item> items = List.of(
+            new Item(1L, null, null),
+            new Item(null, " spl-002 ", null),
+            new Item(3L, null, null)
+        );
+        ItemResult[] results = new ItemResult[items.size()];
+
+        Spool[] spools = SpoolBulkService.resolve(items, List.of(first, second), results);
+
+        assertSame(first, spools[0]);
+        assertSame(second, spools[1]);
+        assertNull(results[0]);
+        assertNull(results[1]);
+        assertNull(spools[2]);
+        assertEquals(SpoolBulkService.STATUS_NOT_FOUND, results[2].status());
+        assertEquals(3L, results[2].id());
+    }
+
+    @Test
+    public void testRejectsMissingReferencesAndRepeats() {
+        Spool first = spool(1, "SPL-001");
+        List<Item> items = List.of(
+            new Item(1L, null, 500.0),
+            new Item(null, "SPL-001", 400.0),
+            new Item(null, " ", null)
+        );
+        ItemResult[] results = new ItemResult[items.size()];
+
+        Spool[] spools = SpoolBulkService.resolve(items, List.of(first), results);
+
+        assertSame(first, spools[0]);
+        assertEquals(SpoolBulkService.STATUS_REJECTED, results[1].status());
+        assertEquals("Spool is listed more than once", results[1].error());
+        assertEquals(SpoolBulkService.STATUS_REJECTED, results[2].status());
+        assertEquals("Spool id or UID is required", results[2].error());
+    }
+}
@@ -0,0 +1,40 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.util.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class SpoolChangeServiceTest {
+
+    static Cursor.Position at(String time, long id) {
+        return new Cursor.Position(LocalDateTime.parse(time), id);
+    }
+
+    @Test
+    public void testMergesByTimeThenId() {
+        List<Cursor.Position> spools = List.of(
+            at("2024-06-01T10:00:00", 5),
+            at("2024-06-01T10:00:00", 9),
+            at("2024-06-01T12:00:00", 1));
+        List<Cursor.Position> tombstones = List.of(
+            at("2024-06-01T10:00:00", 7),
+            at("2024-06-01T11:00:00", 2));
+
+        // 10:00#5, 10:00#7 (tombstone), 10:00#9, 11:00#2 (tombstone)
+        assertArrayEquals(new int[] { 2, 2 }, SpoolChangeService.merge(spools, tombstones, 4));
+        assertArrayEquals(new int[] { 3, 2 }, SpoolChangeService.merge(spools, tombstones, 10));
+    }
+
+    @Test
+    public void testLimitStopsEarly() {
+        List<Cursor.Position> spools = List.of(at("2024-06-01T10:00:00", 1), at("2024-06-01T10:00:01", 2));
+
+        assertArrayEquals(new int[] { 1, 0 }, SpoolChangeService.merge(spools, List.of(), 1));
+        assertArrayEquals(new int[] { 0, 0 }, SpoolChangeService.merge(List.of(), List.of(), 5));
+    }
+}
@@ -0,0 +1,58 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.entity.SpoolLocation;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SpoolExportServiceTest {
+
+    static String row(Object... values) {
+        StringBuilder row = new StringBuilder();
+        SpoolExportService.appendRow(row, values);
+        return row.toString();
+    }
+
+    @Test
+    public void testRowMatchesFormattedExport() {
+        String row = row("abc-1", "Jade White", "PLA", "Bambu Lab", "PLA Basic", "AMS 1",
+            null, "10100", 1000.0, 333.0, LocalDate.of(2024, 3, 5), null, LocalDate.of(2024, 12, 31),
+            19.99, "EUR", false, null);
+
+        assertEquals("abc-1,Jade White,PLA,Bambu Lab,PLA Basic,AMS 1,10100,1000.0,333.0,33.30,"
+            + "2024-03-05,,2024-12-31,19.99,EUR,No,\n", row);
+    }
+
+    @Test
+    public void testFallsBackToLegacyLocation() {
+        String row = row("abc-2", null, null, null, null, null, SpoolLocation.values()[0],
+            null, null, null, null, null, null, null, null, true, null);
+
+        assertEquals("abc-2,,,,," + SpoolLocation.values()[0].getDisplayName() + ",,,,,,,,,,Yes,\n", row);
+    }
+
+    @Test
+    public void testQuotesSpecialCharacters() {
+        assertEquals("plain", SpoolExportService.appendCsv(new StringBuilder(), "plain").toString());
+        assertEquals("\"a,b\"", SpoolExportService.appendCsv(new StringBuilder(), "a,b").toString());
+        assertEquals("\"say \"\"hi\"\"\"", SpoolExportService.appendCsv(new StringBuilder(), "say \"hi\"").toString());
+        assertEquals("\"two\nlines\"", SpoolExportService.appendCsv(new StringBuilder(), "two\nlines").toString());
+    }
+
+    @Test
+    public void testFixedTwoDecimals() {
+        for (double value : new double[] { 0, 0.004, 0.005, 7.5, 33.333333, 99.999, 100, -2.25, 12345.678 }) {
+            assertEquals(String.format("%.2f", value).replace(',', '.'),
+                SpoolExportService.appendFixed2(new StringBuilder(), value).toString(), "value " + value);
+        }
+    }
+
+    @Test
+    public void testDates() {
+        assertEquals("2024-01-09", SpoolExportService.appendDate(new StringBuilder(), LocalDate.of(2024, 1, 9)).toString());
+        assertEquals("", SpoolExportService.appendDate(new StringBuilder(), null).toString());
+    }
+}
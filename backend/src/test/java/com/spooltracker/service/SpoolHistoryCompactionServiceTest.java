@@ -0,0 +1,152 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.service.SpoolHistoryCompactionService.Rollup;
+import com.spooltracker.service.SpoolHistoryCompactionService.Row;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpoolHistoryCompactionServiceTest {
+
+    static Row weight(long id, String time, double oldWeight, double newWeight) {
+        return new Row(id, "WEIGHT_UPDATED", oldWeight, newWeight, LocalDateTime.parse(time));
+    }
+
+    static Row other(long id, String action, String time) {
+        return new Row(id, action, null, null, LocalDateTime.parse(time));
+    }
+
+    @Test
+    public void testRollsUpSameDayRuns() {
+        List<Rollup> rollups = SpoolHistoryCompactionService.buildRollups(List.of(
+            weight(1, "2024-03-01T08:00:00", 1000, 950),
+            weight(2, "2024-03-01T12:00:00", 950, 900),
+            weight(3, "2024-03-01T18:00:00", 900, 920),
+            weight(4, "2024-03-02T09:00:00", 920, 880),
+            weight(5, "2024-03-02T10:00:00", 880, 860)
+        ));
+
+        assertEquals(2, rollups.size());
+        Rollup first = rollups.get(0);
+        assertEquals(LocalDate.of(2024, 3, 1), first.date());
+        assertEquals(List.of(1L, 2L, 3L), first.rowIds());
+        assertEquals(1000.0, first.firstWeightGrams());
+        assertEquals(920.0, first.lastWeightGrams());
+        assertEquals(900.0, first.minWeightGrams());
+        assertEquals(LocalDateTime.parse("2024-03-01T18:00:00"), first.lastUpdatedAt());
+        assertEquals(List.of(4L, 5L), rollups.get(1).rowIds());
+    }
+
+    @Test
+    public void testOtherActionsBreakRuns() {
+        List<Rollup> rollups = SpoolHistoryCompactionService.buildRollups(List.of(
+            weight(1, "2024-03-01T08:00:00", 1000, 950),
+            weight(2, "2024-03-01T09:00:00", 950, 940),
+            other(3, "LOCATION_CHANGED", "2024-03-01T10:00:00"),
+            weight(4, "2024-03-01T11:00:00", 940, 930),
+            other(5, "MARKED_EMPTY", "2024-03-01T12:00:00"),
+            weight(6, "2024-03-01T13:00:00", 930, 0),
+            weight(7, "2024-03-01T14:00:00", 0, 0)
+        ));
+
+        assertEquals(2, rollups.size());
+        assertEquals(List.of(1L, 2L), rollups.get(0).rowIds());
+        assertEquals(List.of(6L, 7L), rollups.get(1).rowIds());
+    }
+
+    /**
+     * Compaction over in-memory history of one spool per entry, recording which spools it loads.
+     */
+    static class InMemoryCompaction extends SpoolHistoryCompactionService {
+        final Map<Long, List<Row>> history = new TreeMap<>();
+        final List<Long> loaded = new ArrayList<>();
+
+        InMemoryCompaction() {
+            keepRaw = Duration.ofDays(30);
+            spoolsPerBatch = 10;
+            maxBatches = 5;
+        }
+
+        static List<Row> within(List<Row> rows, LocalDateTime from, LocalDateTime to) {
+            return rows.stream()
+                .filter(row -> !row.createdAt().isBefore(from) && row.createdAt().isBefore(to))
+                .toList();
+        }
+
+        @Override
+        List<Long> candidates(LocalDateTime from, LocalDateTime to, long afterSpoolId) {
+            List<Long> spoolIds = new ArrayList<>();
+            history.forEach((spoolId, rows) -> {
+                Map<LocalDate, Long> perDay = within(rows, from, to).stream()
+                    .filter(row -> "WEIGHT_UPDATED".equals(row.action()))
+                    .collect(Collectors.groupingBy(row -> row.createdAt().toLocalDate(), Collectors.counting()));
+                if (spoolId > afterSpoolId && perDay.values().stream().anyMatch(count -> count > 1)) {
+                    spoolIds.add(spoolId);
+                }
+            });
+            return spoolIds.subList(0, Math.min(spoolIds.size(), spoolsPerBatch));
+        }
+
+        @Override
+        int[] compactBatch(List<Long> spoolIds, LocalDateTime from, LocalDateTime to) {
+            loaded.addAll(spoolIds);
+            int removed = 0;
+            for (Long spoolId : spoolIds) {
+                for (Rollup rollup : buildRollups(within(history.get(spoolId), from, to))) {
+                    history.get(spoolId).removeIf(row -> rollup.rowIds().contains(row.id()));
+                    removed += rollup.rowIds().size();
+                }
+            }
+            return new int[] { removed, 0 };
+        }
+    }
+
+    @Test
+    public void testSpoolWithNothingLeftToCompactIsNotLoadedAgain() {
+        LocalDateTime old = LocalDate.now().minusDays(60).atTime(8, 0);
+        InMemoryCompaction compaction = new InMemoryCompaction();
+        // Two updates on one day, split by a move: a candidate, but nothing to roll up
+        compaction.history.put(1L, new ArrayList<>(List.of(
+            new Row(1L, "WEIGHT_UPDATED", 1000.0, 950.0, old),
+            new Row(2L, "LOCATION_CHANGED", null, null, old.plusHours(1)),
+            new Row(3L, "WEIGHT_UPDATED", 950.0, 900.0, old.plusHours(2)))));
+        // Updates on different days: never a candidate
+        compaction.history.put(2L, new ArrayList<>(List.of(
+            new Row(4L, "WEIGHT_UPDATED", 1000.0, 950.0, old),
+            new Row(5L, "WEIGHT_UPDATED", 950.0, 900.0, old.plusDays(1)))));
+        // A same-day run that is rolled up
+        compaction.history.put(3L, new ArrayList<>(List.of(
+            new Row(6L, "WEIGHT_UPDATED", 1000.0, 950.0, old),
+            new Row(7L, "WEIGHT_UPDATED", 950.0, 900.0, old.plusHours(1)))));
+
+        assertEquals(2, compaction.compact());
+        assertEquals(List.of(1L, 3L), compaction.loaded);
+
+        // Later runs, also once the cutoff has moved on, only look at newer days
+        compaction.loaded.clear();
+        compaction.compact();
+        compaction.keepRaw = Duration.ofDays(20);
+        compaction.compact();
+        assertEquals(List.of(), compaction.loaded);
+    }
+
+    @Test
+    public void testSingleUpdatesAreKept() {
+        assertTrue(SpoolHistoryCompactionService.buildRollups(List.of(
+            weight(1, "2024-03-01T08:00:00", 1000, 950),
+            weight(2, "2024-03-02T08:00:00", 950, 900),
+            weight(3, "2024-03-03T08:00:00", 900, 850)
+        )).isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpoolHistoryPartitionServiceTest {
+
+    @Test
+    public void testPartitionDefinitions() {
+        String sql = SpoolHistoryPartitionService.partitionDefinitions(
+            List.of(YearMonth.of(2024, 11), YearMonth.of(2024, 12)));
+
+        assertEquals("PARTITION p202411 VALUES LESS THAN ('2024-12-01'), "
+            + "PARTITION p202412 VALUES LESS THAN ('2025-01-01'), "
+            + "PARTITION pmax VALUES LESS THAN (MAXVALUE)", sql);
+    }
+
+    @Test
+    public void testOnlyCatchAllWithoutMonths() {
+        assertEquals("PARTITION pmax VALUES LESS THAN (MAXVALUE)",
+            SpoolHistoryPartitionService.partitionDefinitions(List.of()));
+    }
+
+    @Test
+    public void testMissingPartitionsContinueAfterNewest() {
+        List<YearMonth> missing = SpoolHistoryPartitionService.missingPartitions(
+            List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2)), YearMonth.of(2024, 4));
+
+        assertEquals(List.of(YearMonth.of(2024, 3), YearMonth.of(2024, 4)), missing);
+    }
+
+    @Test
+    public void testNoMissingPartitionsWhenAhead() {
+        assertTrue(SpoolHistoryPartitionService.missingPartitions(
+            List.of(YearMonth.of(2024, 5)), YearMonth.of(2024, 4)).isEmpty());
+    }
+
+    @Test
+    public void testExpiredPartitionsAreStrictlyOlder() {
+        List<YearMonth> expired = SpoolHistoryPartitionService.expiredPartitions(
+            List.of(YearMonth.of(2023, 11), YearMonth.of(2023, 12), YearMonth.of(2024, 1)),
+            YearMonth.of(2024, 1));
+
+        assertEquals(List.of(YearMonth.of(2023, 11), YearMonth.of(2023, 12)), expired);
+    }
+}
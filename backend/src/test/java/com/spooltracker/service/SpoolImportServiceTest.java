@@ -0,0 +1,108 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.entity.FilamentColor;
+import com.spooltracker.entity.FilamentType;
+import com.spooltracker.entity.Location;
+import com.spooltracker.entity.Manufacturer;
+import com.spooltracker.entity.SpoolLocation;
+import com.spooltracker.service.SpoolImportService.Lookups;
+import com.spooltracker.service.SpoolImportService.PendingSpool;
+import com.spooltracker.service.SpoolImportService.Tally;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SpoolImportServiceTest {
+
+    private Lookups lookups;
+    private Tally tally;
+
+    private Manufacturer manufacturer;
+    private FilamentType type;
+    private FilamentColor color;
+    private Location rack;
+
+    @BeforeEach
+    public void setUp() {
+        manufacturer = new Manufacturer();
+        manufacturer.name = "Bambu Lab";
+        type = new FilamentType();
+        type.name = "PLA Basic";
+        color = new FilamentColor();
+        color.name = "Jade White";
+        rack = new Location();
+        rack.name = "Rack A";
+
+        lookups = new Lookups();
+        lookups.manufacturers.put(Lookups.key(manufacturer.name), manufacturer);
+        lookups.filamentTypes.put(Lookups.key(type.name), type);
+        lookups.colors.put(Lookups.key(color.name), color);
+        lookups.locations.put(Lookups.key(rack.name), rack);
+        tally = new Tally();
+    }
+
+    @Test
+    public void testResolvesReferencesFromLookups() {
+        PendingSpool pending = SpoolImportService.parseRow(2,
+            "abc-1,jade white,PLA,Bambu Lab,PLA BASIC,Rack A,10100,1000,750", lookups, tally);
+
+        assertEquals("abc-1", pending.uid());
+        assertSame(manufacturer, pending.manufacturer());
+        assertSame(type, pending.filamentType());
+        assertSame(color, pending.color());
+        assertSame(rack, pending.storageLocation());
+        assertNull(pending.legacyLocation());
+        assertEquals("10100", pending.colorNumber());
+        assertEquals(1000.0, pending.initialWeight());
+        assertEquals(750.0, pending.currentWeight());
+        assertEquals(List.of(), tally.errors);
+    }
+
+    @Test
+    public void testLegacyLocationName() {
+        PendingSpool pending = SpoolImportService.parseRow(2,
+            "abc-2,Jade White,PLA,Bambu Lab,PLA Basic,ams", lookups, tally);
+
+        assertEquals(SpoolLocation.AMS, pending.legacyLocation());
+        assertNull(pending.storageLocation());
+    }
+
+    @Test
+    public void testRejectsUnknownReferences() {
+        assertNull(SpoolImportService.parseRow(3, "abc-3,Jade White,PLA,Unknown,PLA Basic,", lookups, tally));
+        assertNull(SpoolImportService.parseRow(4, "abc-4,Jade White,PLA,Bambu Lab,PETG,", lookups, tally));
+        assertNull(SpoolImportService.parseRow(5, "abc-5,Purple,PLA,Bambu Lab,PLA Basic,", lookups, tally));
+
+        assertEquals(List.of(
+            "Line 3: Manufacturer 'Unknown' not found",
+            "Line 4: Filament type 'PETG' not found",
+            "Line 5: Color 'Purple' not found"
+        ), tally.errors);
+        assertEquals(3, tally.skipped);
+    }
+
+    @Test
+    public void testValidatesFields() {
+        assertNull(SpoolImportService.parseRow(2, "abc,Jade White", lookups, tally));
+        assertNull(SpoolImportService.parseRow(3, ",Jade White,PLA,Bambu Lab,PLA Basic,", lookups, tally));
+        assertNull(SpoolImportService.parseRow(4, "abc,Jade White,PLA,Bambu Lab,PLA Basic,,,heavy", lookups, tally));
+        assertNull(SpoolImportService.parseRow(5, "abc,Jade White,PLA,Bambu Lab,PLA Basic,,,500,600", lookups, tally));
+
+        assertEquals("Line 2: Insufficient fields (expected at least 6, got 2)", tally.errors.get(0));
+        assertEquals("Line 3: UID is required", tally.errors.get(1));
+        assertEquals("Line 4: Invalid initial weight format: heavy", tally.errors.get(2));
+        assertEquals("Line 5: Current weight (600.0) cannot exceed initial weight (500.0)", tally.errors.get(3));
+    }
+
+    @Test
+    public void testParsesQuotedFields() {
+        assertArrayEquals(new String[] { "a", "b,c", "", "d" }, SpoolImportService.parseCsvLine("a,\"b,c\",,d"));
+    }
+}
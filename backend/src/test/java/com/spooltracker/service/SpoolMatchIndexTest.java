@@ -0,0 +1,92 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.spooltracker.service.SpoolMatchIndex.Entry;
+import com.spooltracker.util.ColorScience;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpoolMatchIndexTest {
+
+    private static final double MAX_DELTA_E = 25;
+
+    static Entry entry(long id, String hex) {
+        double[] lab = new double[3];
+        ColorScience.hexToLab(hex, lab);
+        return new Entry(id, "SPL-" + id, 1L, null, null, null, null, hex, null, null, null,
+            (float) lab[0], (float) lab[1], (float) lab[2]);
+    }
+
+    /**
+     * Fully saturated and dark colors, where Lab distance and ΔE2000 disagree most.
+     */
+    static List<Entry> saturatedEntries() {
+        List<Entry> entries = new ArrayList<>();
+        int[] levels = { 0x00, 0x11, 0x33, 0x66, 0x77, 0x99, 0xCC, 0xFF };
+        long id = 1;
+        for (int r : levels) {
+            for (int g : levels) {
+                for (int b : levels) {
+                    entries.add(entry(id++, String.format("#%02X%02X%02X", r, g, b)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    static Set<Long> probe(Entry[] sorted, Entry target) {
+        float band = (float) ColorScience.maxLightnessDifference(MAX_DELTA_E) + 0.01f;
+        Set<Long> found = new HashSet<>();
+        SpoolMatchIndex.withinLightness(sorted, target.labL(), band, entry -> {
+            if (deltaE(target, entry) <= MAX_DELTA_E) {
+                found.add(entry.id());
+            }
+        });
+        return found;
+    }
+
+    static Set<Long> fullScan(List<Entry> entries, Entry target) {
+        Set<Long> found = new HashSet<>();
+        for (Entry entry : entries) {
+            if (deltaE(target, entry) <= MAX_DELTA_E) {
+                found.add(entry.id());
+            }
+        }
+        return found;
+    }
+
+    static double deltaE(Entry a, Entry b) {
+        return ColorScience.deltaE2000(a.labL(), a.labA(), a.labB(), b.labL(), b.labA(), b.labB());
+    }
+
+    @Test
+    public void testLightnessBandFindsSameMatchesAsFullScan() {
+        List<Entry> entries = saturatedEntries();
+        Entry[] sorted = entries.toArray(Entry[]::new);
+        Arrays.sort(sorted, SpoolMatchIndex.BY_LIGHTNESS);
+
+        for (Entry target : entries) {
+            assertEquals(fullScan(entries, target), probe(sorted, target), target.colorHexCode());
+        }
+    }
+
+    @Test
+    public void testFindsCloseMatchFarApartInLab() {
+        Entry blue = entry(1, "#0000FF");
+        Entry teal = entry(2, "#116677");
+        Entry[] sorted = { blue, teal };
+        Arrays.sort(sorted, SpoolMatchIndex.BY_LIGHTNESS);
+
+        assertTrue(deltaE(blue, teal) <= MAX_DELTA_E);
+        assertTrue(probe(sorted, blue).contains(2L));
+        assertTrue(probe(sorted, teal).contains(1L));
+    }
+}
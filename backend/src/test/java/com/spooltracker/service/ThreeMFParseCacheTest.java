@@ -0,0 +1,146 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ThreeMFParseCacheTest {
+
+    static final String SLICE_INFO_TEMPLATE = """
+        <config>
+          <plate>
+            <metadata key="index" value="1"/>
+            <metadata key="printer_model_id" value="%s"/>
+            <metadata key="prediction" value="60"/>
+            <metadata key="weight" value="2.0"/>
+            <filament id="1" type="PLA" color="#FFFFFF" used_m="0.7" used_g="2.0" nozzle_diameter="0.40"/>
+          </plate>
+        </config>
+        """;
+
+    static class CountingParser extends ThreeMFParserService {
+        final AtomicInteger parses = new AtomicInteger();
+
+        @Override
+        public ParseResult parse(Path file) throws Exception {
+            parses.incrementAndGet();
+            return super.parse(file);
+        }
+    }
+
+    static ThreeMFParseCache cache(CountingParser parser, int maxEntries, Path dir) {
+        ThreeMFParseCache cache = new ThreeMFParseCache();
+        cache.parserService = parser;
+        cache.maxEntries = maxEntries;
+        cache.cacheDir = Optional.ofNullable(dir).map(Path::toString);
+        return cache;
+    }
+
+    static Path only(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.reduce((x, y) -> {
+                throw new IllegalStateException("More than one file in " + dir);
+            }).orElseThrow();
+        }
+    }
+
+    static Path write(Path dir, String name, String printerModel) throws Exception {
+        Path file = dir.resolve(name);
+        Files.write(file, ThreeMFParserServiceTest.threeMF(String.format(SLICE_INFO_TEMPLATE, printerModel)));
+        return file;
+    }
+
+    @Test
+    public void testReprintSkipsParsing(@TempDir Path dir) throws Exception {
+        CountingParser parser = new CountingParser();
+        ThreeMFParseCache cache = cache(parser, 8, null);
+
+        ThreeMFParserService.ParseResult first = cache.parse(write(dir, "a.3mf", "C12"));
+        // Same bytes under a different upload name
+        ThreeMFParserService.ParseResult second = cache.parse(write(dir, "b.3mf", "C12"));
+
+        assertSame(first, second);
+        assertEquals(1, parser.parses.get());
+    }
+
+    @Test
+    public void testLruEviction(@TempDir Path dir) throws Exception {
+        CountingParser parser = new CountingParser();
+        ThreeMFParseCache cache = cache(parser, 2, null);
+        Path a = write(dir, "a.3mf", "A");
+        Path b = write(dir, "b.3mf", "B");
+        Path c = write(dir, "c.3mf", "C");
+
+        cache.parse(a);
+        cache.parse(b);
+        cache.parse(a); // a is now most recently used
+        cache.parse(c); // evicts b
+        assertEquals(3, parser.parses.get());
+
+        cache.parse(a);
+        assertEquals(3, parser.parses.get());
+        cache.parse(b);
+        assertEquals(4, parser.parses.get());
+    }
+
+    @Test
+    public void testPersistsAcrossRestarts(@TempDir Path dir) throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        Path file = write(dir, "a.3mf", "C12");
+
+        CountingParser parser = new CountingParser();
+        cache(parser, 8, cacheDir).parse(file);
+
+        CountingParser restarted = new CountingParser();
+        ThreeMFParserService.ParseResult result = cache(restarted, 8, cacheDir).parse(file);
+
+        assertEquals(0, restarted.parses.get());
+        assertEquals("C12", result.printerModel());
+        assertEquals(2.0, result.plate(null).filaments().get(0).usedGrams(), 1e-9);
+    }
+
+    @Test
+    public void testPruneDirectory(@TempDir Path dir) throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        ThreeMFParseCache cache = cache(new CountingParser(), 3, cacheDir);
+        for (int i = 0; i < 3; i++) {
+            cache.parse(write(dir, i + ".3mf", "M" + i));
+        }
+
+        cache.maxEntries = 1;
+        cache.pruneDirectory();
+
+        try (var files = Files.list(cacheDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testPruneKeepsEntryReadAfterRestart(@TempDir Path dir) throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        Path old = write(dir, "old.3mf", "OLD");
+        Path recent = write(dir, "recent.3mf", "RECENT");
+        ThreeMFParseCache cache = cache(new CountingParser(), 2, cacheDir);
+        cache.parse(old);
+        Files.setLastModifiedTime(only(cacheDir), FileTime.fromMillis(0));
+        cache.parse(recent);
+
+        // Read back from disk after a restart, then prune down to one entry
+        CountingParser restarted = new CountingParser();
+        ThreeMFParseCache reloaded = cache(restarted, 1, cacheDir);
+        reloaded.parse(old);
+        reloaded.pruneDirectory();
+
+        reloaded = cache(restarted, 1, cacheDir);
+        reloaded.parse(old);
+        assertEquals(0, restarted.parses.get());
+    }
+}
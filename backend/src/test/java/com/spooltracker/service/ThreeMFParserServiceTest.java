@@ -0,0 +1,143 @@
+package com.spooltracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThreeMFParserServiceTest {
+
+    static final String SLICE_INFO = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <config>
+          <header>
+            <header_item key="X-BBL-Client-Type" value="slicer"/>
+          </header>
+          <plate>
+            <metadata key="index" value="1"/>
+            <metadata key="printer_model_id" value="C12"/>
+            <metadata key="prediction" value="3600"/>
+            <metadata key="weight" value="25.50"/>
+            <metadata key="support_used" value="true"/>
+            <object identify_id="100" name="Cube" skipped="false"/>
+            <filament id="1" tray_info_idx="GFA00" type="PLA" color="#ff6a13" used_m="5.10" used_g="15.20" nozzle_diameter="0.40"/>
+            <filament id="3" tray_info_idx="GFG00" type="PETG" color="#000000" used_m="3.00" used_g="10.30" nozzle_diameter="0.40"/>
+          </plate>
+        </config>
+        """;
+
+    static byte[] threeMF(String sliceInfo) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("3D/3dmodel.model"));
+            zip.write("<model/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            if (sliceInfo != null) {
+                zip.putNextEntry(new ZipEntry("Metadata/slice_info.config"));
+                zip.write(sliceInfo.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testParseSliceInfo() throws Exception {
+        ThreeMFParserService.ParseResult result = new ThreeMFParserService()
+            .parse(new ByteArrayInputStream(threeMF(SLICE_INFO)));
+
+        assertEquals("C12", result.printerModel());
+        assertEquals(1, result.plates().size());
+        ThreeMFParserService.PlateResult plate = result.plate(null);
+        assertEquals(1, plate.index());
+        assertEquals(3600, plate.estimatedTimeSeconds());
+        assertEquals(25.5, plate.totalWeightGrams(), 1e-9);
+        assertTrue(plate.usesSupport());
+        assertEquals(List.of("Cube"), plate.objects());
+        assertEquals(2, plate.filaments().size());
+        assertEquals("#FF6A13", plate.filaments().get(0).colorHex());
+        assertEquals(15.2, plate.filaments().get(0).usedGrams(), 1e-9);
+        assertEquals("PETG", plate.filaments().get(1).type());
+        assertEquals(3, plate.filaments().get(1).id());
+    }
+
+    @Test
+    public void testParseMultiplePlates() throws Exception {
+        String sliceInfo = """
+            <config>
+              <plate>
+                <metadata key="index" value="1"/>
+                <metadata key="printer_model_id" value="N2S"/>
+                <metadata key="prediction" value="100"/>
+                <metadata key="weight" value="1.5"/>
+                <filament id="1" type="PLA" color="#FFFFFF" used_m="0.5" used_g="1.5" nozzle_diameter="0.40"/>
+              </plate>
+              <plate>
+                <metadata key="index" value="4"/>
+                <metadata key="prediction" value="200"/>
+                <metadata key="weight" value="7.25"/>
+                <object identify_id="7" name="Gear" skipped="false"/>
+                <object identify_id="8" name="Axle" skipped="false"/>
+                <filament id="2" type="PETG" color="#112233" used_m="2.4" used_g="7.25" nozzle_diameter="0.40"/>
+              </plate>
+            </config>
+            """;
+        ThreeMFParserService.ParseResult result = new ThreeMFParserService()
+            .parse(new ByteArrayInputStream(threeMF(sliceInfo)));
+
+        assertEquals("N2S", result.printerModel());
+        assertEquals(2, result.plates().size());
+        assertEquals(1, result.plate(null).index());
+
+        ThreeMFParserService.PlateResult plate = result.plate(4);
+        assertEquals(200, plate.estimatedTimeSeconds());
+        assertEquals(7.25, plate.totalWeightGrams(), 1e-9);
+        assertEquals(List.of("Gear", "Axle"), plate.objects());
+        assertEquals("PETG", plate.filaments().get(0).type());
+
+        assertThrows(IllegalArgumentException.class, () -> result.plate(2));
+    }
+
+    @Test
+    public void testMissingSliceInfo() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreeMFParserService()
+            .parse(new ByteArrayInputStream(threeMF(null))));
+    }
+
+    @Test
+    public void testNoPlate() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreeMFParserService()
+            .parse(new ByteArrayInputStream(threeMF("<config><header/></config>"))));
+    }
+
+    @Test
+    public void testParseFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("model.3mf");
+        Files.write(file, threeMF(SLICE_INFO));
+
+        ThreeMFParserService.ParseResult result = new ThreeMFParserService().parse(file);
+
+        assertEquals("C12", result.printerModel());
+        assertEquals(2, result.plate(1).filaments().size());
+        assertEquals("#000000", result.plate(1).filaments().get(1).colorHex());
+    }
+
+    @Test
+    public void testParseFileNotSliced(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("model.3mf");
+        Files.write(file, threeMF(null));
+
+        assertThrows(IllegalArgumentException.class, () -> new ThreeMFParserService().parse(file));
+    }
+}
@@ -0,0 +1,37 @@
+package com.spooltracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColorScienceTest {
+
+    // Reference pairs from Sharma, Wu and Dalal, "The CIEDE2000 Color-Difference Formula"
+    @Test
+    public void testDeltaE2000ReferenceData() {
+        assertEquals(2.0425, ColorScience.deltaE2000(50.0, 2.6772, -79.7751, 50.0, 0.0, -82.7485), 1e-4);
+        assertEquals(2.3669, ColorScience.deltaE2000(50.0, 0.0, 0.0, 50.0, -1.0, 2.0), 1e-4);
+        assertEquals(7.1792, ColorScience.deltaE2000(50.0, 2.49, -0.001, 50.0, -2.49, 0.0009), 1e-4);
+        assertEquals(1.2644, ColorScience.deltaE2000(60.2574, -34.0099, 36.2677, 60.4626, -34.1751, 39.4387), 1e-4);
+        assertEquals(0.0, ColorScience.deltaE2000(50.0, 10.0, 10.0, 50.0, 10.0, 10.0), 1e-9);
+    }
+
+    @Test
+    public void testHexToLab() {
+        double[] lab = new double[3];
+        assertTrue(ColorScience.hexToLab("#FFFFFF", lab));
+        assertEquals(100.0, lab[0], 0.01);
+        assertEquals(0.0, lab[1], 0.01);
+        assertEquals(0.0, lab[2], 0.01);
+
+        assertTrue(ColorScience.hexToLab("#FF0000FF", lab));
+        assertEquals(53.24, lab[0], 0.01);
+        assertEquals(80.09, lab[1], 0.01);
+        assertEquals(67.20, lab[2], 0.01);
+
+        assertFalse(ColorScience.hexToLab("red", lab));
+        assertFalse(ColorScience.hexToLab("#GG0000", lab));
+    }
+}
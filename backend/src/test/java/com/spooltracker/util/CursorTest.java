@@ -0,0 +1,39 @@
+package com.spooltracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CursorTest {
+
+    @Test
+    public void testIdRoundTrip() {
+        assertEquals(42L, Cursor.decode(Cursor.encode(42)));
+        assertNull(Cursor.decode(""));
+        assertNull(Cursor.decode(null));
+    }
+
+    @Test
+    public void testPositionRoundTrip() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+        Cursor.Position position = Cursor.decodePosition(Cursor.encode(timestamp, 9001));
+
+        assertEquals(timestamp, position.timestamp());
+        assertEquals(9001L, position.id());
+        assertNull(Cursor.decodePosition(" "));
+    }
+
+    @Test
+    public void testRejectsMismatchedCursor() {
+        String idCursor = Cursor.encode(7);
+        String positionCursor = Cursor.encode(LocalDateTime.of(2024, 1, 1, 0, 0), 7);
+
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decodePosition(idCursor));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode(positionCursor));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decodePosition("not a cursor!"));
+    }
+}
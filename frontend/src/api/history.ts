@@ -1,7 +1,9 @@
 import { apiClient } from './client';
+import type { PagedResponse } from '../types';
 
 export interface SpoolHistoryEntry {
   id: number;
+  spoolId: number;
   action: string;
   description: string;
   oldValue: string | null;
@@ -10,8 +12,28 @@ export interface SpoolHistoryEntry {
 }
 
 export const historyApi = {
-  getSpoolHistory: async (spoolId: number): Promise<SpoolHistoryEntry[]> => {
-    const response = await apiClient.get<SpoolHistoryEntry[]>(`/spools/${spoolId}/history`);
+  getSpoolHistory: async (spoolId: number, params: {
+    action?: string;
+    from?: string;
+    to?: string;
+    pageSize?: number;
+    cursor?: string;
+  } = {}): Promise<PagedResponse<SpoolHistoryEntry>> => {
+    const response = await apiClient.get<PagedResponse<SpoolHistoryEntry>>(`/spools/${spoolId}/history`, {
+      params,
+    });
+    return response.data;
+  },
+
+  getHistoryFeed: async (params: {
+    spoolId?: number;
+    action?: string;
+    from?: string;
+    to?: string;
+    pageSize?: number;
+    cursor?: string;
+  } = {}): Promise<PagedResponse<SpoolHistoryEntry>> => {
+    const response = await apiClient.get<PagedResponse<SpoolHistoryEntry>>('/history', { params });
     return response.data;
   },
 };
@@ -7,6 +7,6 @@ export { locationsApi } from './locations';
 export { historyApi } from './history';
 export { settingsApi } from './settings';
 export { printJobsApi } from './printJobs';
-export type { FilamentUsage, SpoolMatch, FilamentMatch, PrintJobParseResult, FilamentDeductionRequest } from './printJobs';
+export type { FilamentUsage, SpoolMatch, FilamentMatch, PrintJobPlate, PrintJobParseResult, FilamentDeductionRequest } from './printJobs';
 export type { SeedStatus, SeedResult } from './settings';
 
@@ -31,8 +31,19 @@ export const locationsApi = {
     return data;
   },
 
-  getSpools: async (id: number): Promise<Spool[]> => {
-    const { data } = await apiClient.get(`/locations/${id}/spools`);
+  getSpools: async (id: number, includeDescendants?: boolean): Promise<Spool[]> => {
+    const params = includeDescendants ? '?includeDescendants=true' : '';
+    const { data } = await apiClient.get(`/locations/${id}/spools${params}`);
+    return data;
+  },
+
+  getDescendants: async (id: number): Promise<Location[]> => {
+    const { data } = await apiClient.get(`/locations/${id}/descendants`);
+    return data;
+  },
+
+  getAncestors: async (id: number): Promise<Location[]> => {
+    const { data } = await apiClient.get(`/locations/${id}/ancestors`);
     return data;
   },
 
@@ -29,13 +29,24 @@ export interface FilamentMatch {
   selectedSpoolId: number | null;
 }
 
+export interface PrintJobPlate {
+  index: number;
+  estimatedTimeSeconds: number;
+  totalWeightGrams: number;
+  usesSupport: boolean;
+  objects: string[];
+  filaments: FilamentMatch[];
+}
+
 export interface PrintJobParseResult {
   fileName: string;
   printerModel: string;
+  plateIndex: number;
   estimatedTimeSeconds: number;
   totalWeightGrams: number;
   usesSupport: boolean;
   filaments: FilamentMatch[];
+  plates: PrintJobPlate[];
 }
 
 export interface FilamentDeductionRequest {
@@ -43,13 +54,14 @@ export interface FilamentDeductionRequest {
   gramsUsed: number;
   colorHex: string;
   type: string;
+  plateIndex?: number;
 }
 
 export const printJobsApi = {
   /**
    * Upload and parse a 3MF file
    */
-  parse3mf: async (file: File): Promise<PrintJobParseResult> => {
+  parse3mf: async (file: File, plate?: number): Promise<PrintJobParseResult> => {
     const formData = new FormData();
     formData.append('file', file);
     
@@ -57,6 +69,7 @@ export const printJobsApi = {
       headers: {
         'Content-Type': 'multipart/form-data',
       },
+      params: plate !== undefined ? { plate } : undefined,
     });
     return data;
   },
@@ -64,8 +77,10 @@ export const printJobsApi = {
   /**
    * Confirm print job and deduct filament from selected spools
    */
-  confirmPrintJob: async (deductions: FilamentDeductionRequest[]): Promise<void> => {
-    await apiClient.post('/print-jobs/confirm', deductions);
+  confirmPrintJob: async (deductions: FilamentDeductionRequest[], plate?: number): Promise<void> => {
+    await apiClient.post('/print-jobs/confirm', deductions, {
+      params: plate !== undefined ? { plate } : undefined,
+    });
   },
 };
 
@@ -1,5 +1,5 @@
 import { apiClient } from './client';
-import type { Spool, CreateSpoolDTO, UpdateSpoolDTO, SpoolLocation, LocationStats, MaterialStats, PagedResponse } from '../types';
+import type { Spool, CreateSpoolDTO, UpdateSpoolDTO, SpoolLocation, LocationStats, MaterialStats, PagedResponse, BulkSpoolRequest, BulkSpoolResult } from '../types';
 
 export const spoolsApi = {
   getAll: async (filters?: {
@@ -78,6 +78,11 @@ export const spoolsApi = {
     await apiClient.delete(`/spools/${id}`);
   },
 
+  bulk: async (request: BulkSpoolRequest): Promise<BulkSpoolResult> => {
+    const { data } = await apiClient.post('/spools/bulk', request);
+    return data;
+  },
+
   getStatsByLocation: async (): Promise<LocationStats[]> => {
     const { data } = await apiClient.get('/spools/stats/by-location');
     return data;
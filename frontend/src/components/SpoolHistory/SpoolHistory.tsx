@@ -1,6 +1,7 @@
-import { useQuery } from '@tanstack/react-query';
+import { useInfiniteQuery } from '@tanstack/react-query';
 import { Clock, MapPin, Weight, Package, AlertCircle } from 'lucide-react';
 import { historyApi } from '../../api/history';
+import { Button } from '../ui';
 import styles from './SpoolHistory.module.css';
 
 interface SpoolHistoryProps {
@@ -8,10 +9,13 @@ interface SpoolHistoryProps {
 }
 
 export function SpoolHistory({ spoolId }: SpoolHistoryProps) {
-  const { data: history = [], isLoading } = useQuery({
+  const { data, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useInfiniteQuery({
     queryKey: ['spool-history', spoolId],
-    queryFn: () => historyApi.getSpoolHistory(spoolId),
+    queryFn: ({ pageParam }) => historyApi.getSpoolHistory(spoolId, { cursor: pageParam }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor,
   });
+  const history = data?.pages.flatMap((page) => page.data) ?? [];
 
   if (isLoading) {
     return (
@@ -37,6 +41,7 @@ export function SpoolHistory({ spoolId }: SpoolHistoryProps) {
       case 'LOCATION_CHANGED':
         return <MapPin size={16} />;
       case 'WEIGHT_UPDATED':
+      case 'WEIGHT_ROLLUP':
         return <Weight size={16} />;
       case 'MARKED_EMPTY':
         return <AlertCircle size={16} />;
@@ -53,6 +58,8 @@ export function SpoolHistory({ spoolId }: SpoolHistoryProps) {
         return 'Location Changed';
       case 'WEIGHT_UPDATED':
         return 'Weight Updated';
+      case 'WEIGHT_ROLLUP':
+        return 'Daily Weight Summary';
       case 'MARKED_EMPTY':
         return 'Marked Empty';
       case 'SPOOL_CREATED':
@@ -102,6 +109,18 @@ export function SpoolHistory({ spoolId }: SpoolHistoryProps) {
           </div>
         ))}
       </div>
+      {hasNextPage && (
+        <div className={styles.more}>
+          <Button
+            variant="secondary"
+            size="sm"
+            onClick={() => fetchNextPage()}
+            isLoading={isFetchingNextPage}
+          >
+            Load older entries
+          </Button>
+        </div>
+      )}
     </div>
   );
 }
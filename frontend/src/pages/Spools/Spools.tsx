@@ -907,7 +907,7 @@ export function Spools() {
       )}
 
       {/* Pagination */}
-      {pagination && (
+      {pagination && pagination.totalItems != null && pagination.totalPages != null && (
         <Pagination
           page={page}
           pageSize={pageSize}
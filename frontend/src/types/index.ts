@@ -134,6 +134,31 @@ export interface UpdateSpoolDTO extends Partial<CreateSpoolDTO> {
   isEmpty?: boolean;
 }
 
+export type BulkSpoolOperation = 'MOVE' | 'WEIGH' | 'MARK_EMPTY' | 'DELETE';
+
+export interface BulkSpoolRequest {
+  operation: BulkSpoolOperation;
+  // Each spool by id or UID; WEIGH also takes the new weight
+  items: { id?: number; uid?: string; weight?: number }[];
+  // MOVE target: a storage location, or a legacy location
+  storageLocationId?: number;
+  location?: SpoolLocation;
+  locationDetails?: string;
+}
+
+export interface BulkSpoolResult {
+  operation: BulkSpoolOperation;
+  succeeded: number;
+  failed: number;
+  results: {
+    id?: number;
+    uid?: string;
+    status: 'OK' | 'NOT_FOUND' | 'REJECTED';
+    error?: string;
+    spool?: Spool;
+  }[];
+}
+
 export interface LocationStats {
   location: SpoolLocation;
   count: number;
@@ -148,9 +173,11 @@ export interface PagedResponse<T> {
   data: T[];
   page: number;
   pageSize: number;
-  totalItems: number;
-  totalPages: number;
+  // Null for cursor pages, unless requested with includeTotal
+  totalItems: number | null;
+  totalPages: number | null;
   hasNext: boolean;
   hasPrevious: boolean;
+  nextCursor?: string;
 }
 